@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.lang.Character.UnicodeBlock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * shared, immutable classification of each characters in BMP, which normalizers concerned .
+ *
+ * <p>
+ * a two-level table: the upper bits of the code point select a page, and the pages which have the same contents are shared .
+ * each entry has the {@link UnicodeBlock} of the character and the flags, so that each decisions are one array lookup .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+final class CodePoints {
+
+  /** the flag of {@link Character#isWhitespace(int)} . */
+  static final char WHITESPACE = 0x100;
+
+  /** the flag of combining marks ( {@link Character#NON_SPACING_MARK}, {@link Character#COMBINING_SPACING_MARK}, {@link Character#ENCLOSING_MARK} ) . */
+  static final char MARK = 0x200;
+
+  /** the mask of the index of {@link #blocks} . */
+  private static final char BLOCK = 0xFF;
+
+  /** the bits of the index in a page . */
+  private static final int pageBits = 6;
+
+  /** {@link UnicodeBlock UnicodeBlock(s)} in BMP, the first one is null ( unassigned ) . */
+  private static final UnicodeBlock[] blocks;
+
+  /** the offset of the page in {@link #entries} of each pages . */
+  private static final char[] pages = new char[0x1_0000 >>> pageBits];
+
+  /** the entries of each characters, the index of {@link #blocks} and the flags . */
+  private static final char[] entries;
+
+  static {
+    final List<UnicodeBlock> _blocks = new ArrayList<>(Arrays.asList((UnicodeBlock) null));
+    final Map<UnicodeBlock, Integer> _indices = new HashMap<>();
+    final Map<String, Integer> _offsets = new HashMap<>();
+    final StringBuilder _entries = new StringBuilder();
+    final char[] page = new char[1 << pageBits];
+    for (int i = 0; i < pages.length; i++) {
+      for (int j = 0; j < page.length; j++) {
+        final int codePoint = (i << pageBits) | j;
+        final UnicodeBlock unicodeBlock = UnicodeBlock.of(codePoint);
+        final int index = unicodeBlock == null ? 0 : _indices.computeIfAbsent(unicodeBlock, (k) -> {
+          _blocks.add(k);
+
+          return _blocks.size() - 1;
+        });
+        page[j] = (char) (index | (Character.isWhitespace(codePoint) ? WHITESPACE : 0) | (isMarkType(Character.getType(codePoint)) ? MARK : 0));
+      }
+      pages[i] = (char) (int) _offsets.computeIfAbsent(new String(page), (k) -> {
+        _entries.append(k);
+
+        return _entries.length() - k.length();
+      });
+    }
+    blocks = _blocks.toArray(UnicodeBlock[]::new);
+    entries = _entries.toString().toCharArray();
+  }
+
+  /**
+   * returns {@code true} if the type is the one of combining marks .
+   *
+   * @param type the general category
+   * @return {@code true} if the type is the one of combining marks
+   */
+  private static boolean isMarkType(final int type) {
+    return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK;
+  }
+
+  /**
+   * returns the entry of the character .
+   *
+   * @param c the character
+   * @return the entry
+   */
+  private static char entryOf(final char c) {
+    return entries[pages[c >>> pageBits] + (c & ((1 << pageBits) - 1))];
+  }
+
+  /**
+   * same as {@link UnicodeBlock#of(int)} .
+   *
+   * @param codePoint the code point
+   * @return {@link UnicodeBlock}, or null if the code point is not a member of any block
+   */
+  static UnicodeBlock blockOf(final int codePoint) {
+    return codePoint < Character.MIN_VALUE || codePoint > Character.MAX_VALUE ? UnicodeBlock.of(codePoint) : blocks[entryOf((char) codePoint) & BLOCK];
+  }
+
+  /**
+   * same as {@link Character#isWhitespace(int)} .
+   *
+   * @param codePoint the code point
+   * @return {@code true} if the code point is a white space
+   */
+  static boolean isWhitespace(final int codePoint) {
+    return codePoint < Character.MIN_VALUE || codePoint > Character.MAX_VALUE ? Character.isWhitespace(codePoint) : (entryOf((char) codePoint) & WHITESPACE) != 0;
+  }
+
+  /**
+   * returns {@code true} if the code point is a combining mark .
+   *
+   * @param codePoint the code point
+   * @return {@code true} if the code point is a combining mark
+   */
+  static boolean isMark(final int codePoint) {
+    return codePoint < Character.MIN_VALUE || codePoint > Character.MAX_VALUE ? isMarkType(Character.getType(codePoint)) : (entryOf((char) codePoint) & MARK) != 0;
+  }
+
+  /** the instance should NOT be constructed in standard programming. */
+  private CodePoints() {}
+}
@@ -15,9 +15,10 @@
  */
 package jp.furplag.sandbox.text;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.Character.UnicodeBlock;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -36,13 +37,27 @@ import lombok.NonNull;
 public abstract class Commonizr {
 
   /** Hiragana convert to Katakana . */
-  private static final Normalizr.Kanizr hiraganizr = new Normalizr.Kanizr('あ' - 'ア', UnicodeBlock.KATAKANA, 12448, 12535, 12536, 12537, 12538, 12539, 12540, 12543) {};
+  static final Normalizr.Kanizr hiraganizr = new Normalizr.Kanizr('あ' - 'ア', UnicodeBlock.KATAKANA, 12448, 12535, 12536, 12537, 12538, 12539, 12540, 12543) {};
 
   /** Katakana convert to Hiragana . */
-  private static final Normalizr.Kanizr katakanizr = new Normalizr.Kanizr(-hiraganizr.differenceOfCodepoints, UnicodeBlock.HIRAGANA, 12352, 12439, 12440, 12441, 12442, 12443, 12444, 12447) {};
+  static final Normalizr.Kanizr katakanizr = new Normalizr.Kanizr(-hiraganizr.differenceOfCodepoints, UnicodeBlock.HIRAGANA, 12352, 12439, 12440, 12441, 12442, 12443, 12444, 12447) {};
+
+  /** the rules of {@link #hiraganize(String)}, which replace Katakana those are not convertible to Hiragana ( U+30F7 - U+30FA ), sorted already . */
+  private static final RegexrChain hiraganizeRules = RegexrChain.of(/* @formatter:off */
+    new Regexr.Origin("\\x{30F7}", "\u308F\u309B") {}
+  , new Regexr.Origin("\\x{30F8}", "\u3090\u309B") {}
+  , new Regexr.Origin("\\x{30F9}", "\u3091\u309B") {}
+  , new Regexr.Origin("\\x{30FA}", "\u3092\u309B") {}
+  /* @formatter:on */);
+
+  /** the rules of {@link #optimize(String)}, sorted already . */
+  private static final RegexrChain optimizeRules = RegexrChain.of(Regexr.removeCtrls, Regexr.removeEmpties, Regexr.normalizeSpaces, Regexr.spacesSinglize, Regexr.lineFeedsSinglize, Regexr.trim);
+
+  /** the rules of {@link #trim(String)}, sorted already . */
+  private static final RegexrChain trimRules = RegexrChain.of(Regexr.removeCtrls, Regexr.removeEmpties, new Regexr.Origin("^[\\p{javaWhitespace}\u00A0]+|[\\p{javaWhitespace}\u00A0]+$", null, 10) {}, Regexr.trim);
 
   /** optimized Unicode character(s) normalization . */
-  private static final Normalizr cjkNormalizr = new Normalizr('！' - '!') {
+  static final Normalizr cjkNormalizr = new Normalizr('！' - '!') {
 
     /** exclude characters from translate. */
     private final Map<Integer, Integer> exclusives = Streamr.stream(
@@ -50,19 +65,35 @@ public abstract class Commonizr {
       {0xFF65, 0x00B7}, {0xFFE0, 0x00A2}, {0xFFE1, 0x00A3}, {0xFFE2, 0x00AC}, {0xFFE3, 0x00AF}, {0xFFE4, 0x00A6}, {0xFFE5, 0x20A9}, {0xFFE6, 0x00A5}, {0xFFE8, 0x2502}
     /* @formatter:on */}).collect(Collectors.toUnmodifiableMap((k) -> k[1], (v) -> v[0], (a, b) -> b));
 
+    /** the result of {@link #translate(int)} of each characters in BMP . */
+    private final char[] translations = new char[0x1_0000];
+    {
+      for (int codePoint = 0; codePoint < translations.length; codePoint++) {
+        translations[codePoint] = (char) exclusives.getOrDefault(codePoint, codePoint + (!UnicodeBlock.BASIC_LATIN.equals(CodePoints.blockOf(codePoint)) || CodePoints.isWhitespace(codePoint) ? 0 : differenceOfCodepoints)).intValue();
+      }
+    }
+
     /** {@inheritDoc} */
     @Override
     String normalize(String text) {
-      return optimize(Regexr.normalizeCjk.replaceAll(text));
+      return Sweepr.normalizeCjk(text);
     }
 
     /** {@inheritDoc} */
     @Override
     int translate(int codePoint) {
-      return exclusives.getOrDefault(codePoint, codePoint + (!UnicodeBlock.BASIC_LATIN.equals(UnicodeBlock.of(codePoint)) || Character.isWhitespace(codePoint) ? 0 : differenceOfCodepoints));
+      return codePoint < translations.length ? translations[codePoint] : codePoint;
     }
   };
 
+  /** the result of {@link #denormalizeCjk(String)} of each characters in BMP, translated with {@link #cjkNormalizr} and the space replaced to U+3000 . */
+  static final char[] denormalizations = new char[0x1_0000];
+  static {
+    for (int codePoint = 0; codePoint < denormalizations.length; codePoint++) {
+      denormalizations[codePoint] = codePoint == '\u0020' ? '\u3000' : (char) cjkNormalizr.translate(codePoint);
+    }
+  }
+
   /**
    * text normalization for using under standard input .
    *
@@ -83,30 +114,41 @@ public abstract class Commonizr {
      */
     static abstract class Kanizr extends Normalizr {
 
-      /** exclude characters from converting . */
-      private final Set<Integer> exclusions;
-
-      /** Unicode block to convert . */
-      private final UnicodeBlock targetCodeBlock;
+      /** the result of {@link #translate(int)} of each characters in BMP . */
+      private final char[] translations = new char[0x1_0000];
 
       Kanizr(int defferenceOfCodepoints, @NonNull UnicodeBlock targetCodeBlock, int... exclusions) {
         super(defferenceOfCodepoints);
-        this.targetCodeBlock = targetCodeBlock;
-        this.exclusions = Collections.unmodifiableSet(Arrays.stream(Optional.ofNullable(exclusions).orElse(new int[] {})).mapToObj(Integer::valueOf).collect(Collectors.toSet()));
+        final Set<Integer> _exclusions = Arrays.stream(Optional.ofNullable(exclusions).orElse(new int[] {})).mapToObj(Integer::valueOf).collect(Collectors.toSet());
+        for (int codePoint = 0; codePoint < translations.length; codePoint++) {
+          translations[codePoint] = (char) (codePoint + (!_exclusions.contains(codePoint) && targetCodeBlock.equals(CodePoints.blockOf(codePoint)) ? differenceOfCodepoints : 0));
+        }
       }
 
       /** {@inheritDoc} */
       @Override
-      String normalize(final String text) {/* @formatter:off */
-        return Objects.isNull(text) ? text : normalizeCjk(text).codePoints()
-          .mapToObj((i) -> Regexr.newString(translate(i)))
-          .collect(Collectors.joining());
-      /* @formatter:on */}
+      String normalize(final String text) {
+        final String normalized = normalizeCjk(text);
+        final int length = Objects.isNull(normalized) ? 0 : normalized.length();
+        int i = 0;
+        while (i < length && translations[normalized.charAt(i)] == normalized.charAt(i)) {
+          i++;
+        }
+        if (i >= length) {
+          return normalized;
+        }
+        final char[] chars = normalized.toCharArray();
+        for (; i < length; i++) {
+          chars[i] = translations[chars[i]];
+        }
+
+        return new String(chars);
+      }
 
       /** {@inheritDoc} */
       @Override
       int translate(final int codePoint) {
-        return codePoint + (!exclusions.contains(codePoint) && targetCodeBlock.equals(UnicodeBlock.of(codePoint)) ? differenceOfCodepoints : 0);
+        return codePoint < translations.length ? translations[codePoint] : codePoint;
       }
     }
 
@@ -134,7 +176,25 @@ public abstract class Commonizr {
    * @return converted text, return null if the text is null
    */
   public static String hiraganize(final String text) {
-    return Regexr.replaceAll(hiraganizr.normalize(normalizeCjk(text)), new Regexr.Origin("\\x{30F7}", "\u308F\u309B") {}, new Regexr.Origin("\\x{30F8}", "\u3090\u309B") {}, new Regexr.Origin("\\x{30F9}", "\u3091\u309B") {}, new Regexr.Origin("\\x{30FA}", "\u3092\u309B") {});
+    final long started = RegexrDiagnostics.started();
+
+    return RegexrDiagnostics.record("Commonizr.hiraganize", text, started, hiraganizeRules.replaceAll(hiraganizr.normalize(normalizeCjk(text))));
+  }
+
+  /**
+   * appends the result of {@link #hiraganize(String)} of the range of the text to the destination, without intermediate {@link String} .
+   *
+   * @param <A> the type of destination
+   * @param text the string, may not be null
+   * @param start the index of the text to start, inclusive
+   * @param end the index of the text to stop, exclusive
+   * @param destination the destination, may not be null
+   * @return the destination
+   * @throws IndexOutOfBoundsException if the range is out of the text
+   * @throws UncheckedIOException if an I/O error occurs in the destination
+   */
+  public static <A extends Appendable> A hiraganize(final CharSequence text, final int start, final int end, final A destination) {
+    return apply(Sweepr.Flavor.Hiraganize, text, start, end, destination);
   }
 
   /**
@@ -144,7 +204,25 @@ public abstract class Commonizr {
    * @return converted text, return null if the text is null
    */
   public static String katakanize(final String text) {
-    return katakanizr.normalize(text);
+    final long started = RegexrDiagnostics.started();
+
+    return RegexrDiagnostics.record("Commonizr.katakanize", text, started, katakanizr.normalize(text));
+  }
+
+  /**
+   * appends the result of {@link #katakanize(String)} of the range of the text to the destination, without intermediate {@link String} .
+   *
+   * @param <A> the type of destination
+   * @param text the string, may not be null
+   * @param start the index of the text to start, inclusive
+   * @param end the index of the text to stop, exclusive
+   * @param destination the destination, may not be null
+   * @return the destination
+   * @throws IndexOutOfBoundsException if the range is out of the text
+   * @throws UncheckedIOException if an I/O error occurs in the destination
+   */
+  public static <A extends Appendable> A katakanize(final CharSequence text, final int start, final int end, final A destination) {
+    return apply(Sweepr.Flavor.Katakanize, text, start, end, destination);
   }
 
   /**
@@ -162,7 +240,46 @@ public abstract class Commonizr {
    * @return denormalized text, return null if the text is null
    */
   public static String denormalizeCjk(final String text) {
-    return Objects.isNull(text) ? text : normalizeCjk(text).codePoints().mapToObj((i) -> Regexr.newString(cjkNormalizr.translate(i))).collect(Collectors.joining()).replaceAll("\u0020", "\u3000");
+    if (Objects.isNull(text)) {
+      return text;
+    }
+    final long started = RegexrDiagnostics.started();
+    final char[] chars = normalizeCjk(text).toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = denormalizations[chars[i]];
+    }
+
+    return RegexrDiagnostics.record("Commonizr.denormalizeCjk", text, started, new String(chars));
+  }
+
+  /**
+   * appends the result of {@link #denormalizeCjk(String)} of the range of the text to the destination, without intermediate {@link String} .
+   *
+   * @param <A> the type of destination
+   * @param text the string, may not be null
+   * @param start the index of the text to start, inclusive
+   * @param end the index of the text to stop, exclusive
+   * @param destination the destination, may not be null
+   * @return the destination
+   * @throws IndexOutOfBoundsException if the range is out of the text
+   * @throws UncheckedIOException if an I/O error occurs in the destination
+   */
+  public static <A extends Appendable> A denormalizeCjk(final CharSequence text, final int start, final int end, final A destination) {
+    return apply(Sweepr.Flavor.DenormalizeCjk, text, start, end, destination);
+  }
+
+  /**
+   * returns {@code true} if the text needs no change in {@link #normalizeCjk(String)} .
+   *
+   * <p>
+   * most of the clean text ( e.g. ASCII identifiers ) decides in a single scan, without normalization .
+   * </p>
+   *
+   * @param text the string, maybe null
+   * @return {@code true} if the result of {@link #normalizeCjk(String)} equals to the text, or the text is null
+   */
+  public static boolean isNormalized(final String text) {
+    return Sweepr.isNormalized(text, true) || text.equals(normalizeCjk(text));
   }
 
   /**
@@ -180,7 +297,32 @@ public abstract class Commonizr {
    * @return normalized text, return null if the text is null
    */
   public static String normalizeCjk(final String text) {
-    return cjkNormalizr.normalize(optimize(text));
+    final long started = RegexrDiagnostics.started();
+
+    if (started == 0L) {
+      return cjkNormalizr.normalize(text);
+    } else if (RegexrDiagnostics.attributes()) {
+      return RegexrDiagnostics.record("Commonizr.normalizeCjk", text, started, optimize(RegexrDiagnostics.replaceAll(Regexr.normalizeCjk, optimize(text))));
+    }
+    final String normalized = cjkNormalizr.normalize(text);
+
+    return RegexrDiagnostics.record("Commonizr.normalizeCjk", normalized == text ? "clean" : "sweepr", text, started, normalized);
+  }
+
+  /**
+   * appends the result of {@link #normalizeCjk(String)} of the range of the text to the destination, without intermediate {@link String} .
+   *
+   * @param <A> the type of destination
+   * @param text the string, may not be null
+   * @param start the index of the text to start, inclusive
+   * @param end the index of the text to stop, exclusive
+   * @param destination the destination, may not be null
+   * @return the destination
+   * @throws IndexOutOfBoundsException if the range is out of the text
+   * @throws UncheckedIOException if an I/O error occurs in the destination
+   */
+  public static <A extends Appendable> A normalizeCjk(final CharSequence text, final int start, final int end, final A destination) {
+    return apply(Sweepr.Flavor.NormalizeCjk, text, start, end, destination);
   }
 
   /**
@@ -199,7 +341,35 @@ public abstract class Commonizr {
    * @return optimized text, return null if the text is null
    */
   public static String optimize(final String text) {
-    return Regexr.replaceAll(text, Regexr.removeCtrls, Regexr.removeEmpties, Regexr.normalizeSpaces, Regexr.spacesSinglize, Regexr.lineFeedsSinglize, Regexr.trim);
+    final long started = RegexrDiagnostics.started();
+    if (RegexrDiagnostics.attributes()) {
+      return RegexrDiagnostics.record("Commonizr.optimize", text, started, optimizeRules.replaceAll(text));
+    }
+    final String latin1 = Sweepr.optimizeLatin1(text);
+
+    if (Objects.nonNull(latin1)) {
+      return RegexrDiagnostics.record("Commonizr.optimize", "latin1", text, started, latin1);
+    } else if (Sweepr.isNormalized(text, false)) {
+      return RegexrDiagnostics.record("Commonizr.optimize", "clean", text, started, text);
+    }
+
+    return RegexrDiagnostics.record("Commonizr.optimize", "rules", text, started, optimizeRules.replaceAll(text));
+  }
+
+  /**
+   * appends the result of {@link #optimize(String)} of the range of the text to the destination, without intermediate {@link String} .
+   *
+   * @param <A> the type of destination
+   * @param text the string, may not be null
+   * @param start the index of the text to start, inclusive
+   * @param end the index of the text to stop, exclusive
+   * @param destination the destination, may not be null
+   * @return the destination
+   * @throws IndexOutOfBoundsException if the range is out of the text
+   * @throws UncheckedIOException if an I/O error occurs in the destination
+   */
+  public static <A extends Appendable> A optimize(final CharSequence text, final int start, final int end, final A destination) {
+    return apply(Sweepr.Flavor.Optimize, text, start, end, destination);
   }
 
   /**
@@ -215,7 +385,23 @@ public abstract class Commonizr {
    * @return trimmed text, return null if the text is null
    */
   public static String trim(final String text) {
-    return Regexr.replaceAll(text, Regexr.removeCtrls, Regexr.removeEmpties, new Regexr.Origin("^[\\p{javaWhitespace}\u00A0]+|[\\p{javaWhitespace}\u00A0]+$", null, 10) {}, Regexr.trim);
+    final long started = RegexrDiagnostics.started();
+    if (RegexrDiagnostics.attributes()) {
+      return RegexrDiagnostics.record("Commonizr.trim", text, started, trimRules.replaceAll(text));
+    }
+    final String latin1 = Sweepr.trimLatin1(text);
+
+    if (Objects.nonNull(latin1) || Objects.isNull(text)) {
+      return RegexrDiagnostics.record("Commonizr.trim", "latin1", text, started, latin1);
+    }
+    final byte first = Sweepr.classes[text.charAt(0)];
+    final byte last = Sweepr.classes[text.charAt(text.length() - 1)];
+
+    if (first != Sweepr.SPACE && first != Sweepr.LINEFEED && last != Sweepr.SPACE && last != Sweepr.LINEFEED && Sweepr.indexOfDrop(text, 0, text.length()) < 0) {
+      return RegexrDiagnostics.record("Commonizr.trim", "clean", text, started, text);
+    }
+
+    return RegexrDiagnostics.record("Commonizr.trim", "rules", text, started, trimRules.replaceAll(text));
   }
 
   /**
@@ -225,7 +411,33 @@ public abstract class Commonizr {
    * @return trimmed text, return null if the text is null
    */
   public static String trimMultiline(final String text) {
-    return Regexr.replaceAll(trim(text), Regexr.lineFeedsSinglize, Regexr.trim);
+    final long started = RegexrDiagnostics.started();
+
+    if (RegexrDiagnostics.attributes()) {
+      return RegexrDiagnostics.record("Commonizr.trimMultiline", text, started, Regexr.replaceAll(trim(text), Regexr.lineFeedsSinglize, Regexr.trim));
+    }
+
+    return RegexrDiagnostics.record("Commonizr.trimMultiline", "liner", text, started, Liner.trimMultiline(text));
+  }
+
+  /**
+   * appends the result of the normalization of the range of the text to the destination .
+   *
+   * @param <A> the type of destination
+   * @param flavor the kind of normalization
+   * @param text the string, may not be null
+   * @param start the index of the text to start, inclusive
+   * @param end the index of the text to stop, exclusive
+   * @param destination the destination, may not be null
+   * @return the destination
+   */
+  private static <A extends Appendable> A apply(final Sweepr.Flavor flavor, @NonNull final CharSequence text, final int start, final int end, @NonNull final A destination) {
+    Objects.checkFromToIndex(start, end, text.length());
+    try {
+      return new Sweepr.Chain(flavor).apply(text, start, end, destination);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 
   /** the instance should NOT be constructed in standard programming. */
@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.NonNull;
+
+/**
+ * asynchronous normalization using {@link Commonizr}, which returns {@link CompletableFuture} .
+ *
+ * <p>
+ * each normalization runs on the executor, and the count of normalizations which run at once is limited with a {@link Semaphore} .
+ * the normalization is dispatched to the executor only after acquiring a permit, and waits in the queue of this service until then,
+ * so that no thread of the executor blocks on the limit, and the normalization cancelled while waiting never occupies any thread .
+ * the default executor runs each tasks on a virtual thread if the runtime supports, or a bounded pool of daemon threads if not .
+ * the text which is longer than the limit is not normalized, and the result is cancelled . Cancelling the result stops the normalization
+ * at the boundary of next chunk of the text .
+ * </p>
+ * <p>
+ * the result of each normalization is the same as the {@link String} API of {@link Commonizr} .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+public final class CommonizrAsync implements AutoCloseable {
+
+  /** the count of characters which normalizes between checking cancellation . */
+  static final int chunkSize = 0x2000;
+
+  /** the executor . */
+  private final Executor executor;
+
+  /** {@code true} if {@link #executor} is created by this service . */
+  private final boolean owned;
+
+  /** the limit of concurrency . */
+  private final Semaphore permits;
+
+  /** the normalizations which waiting for a permit . */
+  private final Queue<Task> pending = new ConcurrentLinkedQueue<>();
+
+  /** the count of requests to {@link #dispatch()}, which the thread dispatching handles in place of others . */
+  private final AtomicInteger dispatches = new AtomicInteger();
+
+  /** the max length of the text to normalize . */
+  private final int maxLength;
+
+  /**
+   * a normalization which waiting for dispatch .
+   *
+   * @author furplag
+   *
+   */
+  private final class Task implements Runnable {
+
+    /** the kind of normalization . */
+    private final Sweepr.Flavor flavor;
+
+    /** the string, may not be null . */
+    private final String text;
+
+    /** the result . */
+    private final CompletableFuture<String> result;
+
+    /**
+     * @param flavor the kind of normalization
+     * @param text the string, may not be null
+     * @param result the result
+     */
+    private Task(final Sweepr.Flavor flavor, final String text, final CompletableFuture<String> result) {
+      this.flavor = flavor;
+      this.text = text;
+      this.result = result;
+    }
+
+    /** normalize the text with the permit, and then release the permit to the next . */
+    @Override
+    public void run() {
+      try {
+        normalize(flavor, text, result);
+      } finally {
+        permits.release();
+        dispatch();
+      }
+    }
+  }
+
+  /**
+   * @param executor the executor
+   * @param owned {@code true} if the executor is created by this service
+   * @param permits the count of normalizations which run at once
+   * @param maxLength the max length of the text to normalize
+   */
+  private CommonizrAsync(final Executor executor, final boolean owned, final int permits, final int maxLength) {
+    if (permits < 1) {
+      throw new IllegalArgumentException(String.format("permits must be positive: %d .", permits));
+    }
+    this.executor = executor;
+    this.owned = owned;
+    this.permits = new Semaphore(permits);
+    this.maxLength = Math.max(0, maxLength);
+  }
+
+  /**
+   * returns the service which runs on the default executor, the concurrency is limited to the count of processors .
+   *
+   * @return {@link CommonizrAsync}
+   */
+  public static CommonizrAsync of() {
+    return of(Integer.MAX_VALUE);
+  }
+
+  /**
+   * returns the service which runs on the default executor, the concurrency is limited to the count of processors .
+   *
+   * @param maxLength the max length of the text to normalize
+   * @return {@link CommonizrAsync}
+   */
+  public static CommonizrAsync of(final int maxLength) {
+    final int processors = Runtime.getRuntime().availableProcessors();
+
+    return new CommonizrAsync(defaultExecutor(processors), true, processors, maxLength);
+  }
+
+  /**
+   * returns the service which runs on the executor .
+   *
+   * @param executor the executor, may not be null, which is not shut down with {@link #close()}
+   * @param permits the count of normalizations which run at once
+   * @param maxLength the max length of the text to normalize
+   * @return {@link CommonizrAsync}
+   */
+  public static CommonizrAsync of(@NonNull final Executor executor, final int permits, final int maxLength) {
+    return new CommonizrAsync(executor, false, permits, maxLength);
+  }
+
+  /**
+   * returns the executor which runs each tasks on a virtual thread, or a bounded pool of daemon threads if the runtime does not support virtual threads .
+   *
+   * @param poolSize the size of pool, if the runtime does not support virtual threads
+   * @return {@link ExecutorService}
+   */
+  static ExecutorService defaultExecutor(final int poolSize) {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | SecurityException | UnsupportedOperationException e) {
+      return Executors.newFixedThreadPool(Math.max(1, poolSize), (runnable) -> {
+        final Thread thread = new Thread(runnable, CommonizrAsync.class.getSimpleName());
+        thread.setDaemon(true);
+
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * returns the result of {@link Commonizr#denormalizeCjk(String)} asynchronously .
+   *
+   * @param text the string, maybe null
+   * @return the result, cancelled if the text is longer than the limit
+   */
+  public CompletableFuture<String> denormalizeCjk(final String text) {
+    return submit(Sweepr.Flavor.DenormalizeCjk, text);
+  }
+
+  /**
+   * returns the result of {@link Commonizr#hiraganize(String)} asynchronously .
+   *
+   * @param text the string, maybe null
+   * @return the result, cancelled if the text is longer than the limit
+   */
+  public CompletableFuture<String> hiraganize(final String text) {
+    return submit(Sweepr.Flavor.Hiraganize, text);
+  }
+
+  /**
+   * returns the result of {@link Commonizr#katakanize(String)} asynchronously .
+   *
+   * @param text the string, maybe null
+   * @return the result, cancelled if the text is longer than the limit
+   */
+  public CompletableFuture<String> katakanize(final String text) {
+    return submit(Sweepr.Flavor.Katakanize, text);
+  }
+
+  /**
+   * returns the result of {@link Commonizr#normalizeCjk(String)} asynchronously .
+   *
+   * @param text the string, maybe null
+   * @return the result, cancelled if the text is longer than the limit
+   */
+  public CompletableFuture<String> normalizeCjk(final String text) {
+    return submit(Sweepr.Flavor.NormalizeCjk, text);
+  }
+
+  /**
+   * returns the result of {@link Commonizr#optimize(String)} asynchronously .
+   *
+   * @param text the string, maybe null
+   * @return the result, cancelled if the text is longer than the limit
+   */
+  public CompletableFuture<String> optimize(final String text) {
+    return submit(Sweepr.Flavor.Optimize, text);
+  }
+
+  /**
+   * shut down the executor, if the executor is created by this service .
+   */
+  @Override
+  public void close() {
+    if (owned) {
+      ((ExecutorService) executor).shutdown();
+    }
+  }
+
+  /**
+   * run the normalization on the executor .
+   *
+   * @param flavor the kind of normalization
+   * @param text the string, maybe null
+   * @return the result
+   */
+  private CompletableFuture<String> submit(final Sweepr.Flavor flavor, final String text) {
+    final CompletableFuture<String> result = new CompletableFuture<>();
+    if (Objects.isNull(text)) {
+      result.complete(null);
+    } else if (text.length() > maxLength) {
+      result.cancel(false);
+    } else {
+      pending.add(new Task(flavor, text, result));
+      dispatch();
+    }
+
+    return result;
+  }
+
+  /**
+   * dispatch the normalizations which waiting, while any permit is available, one thread at a time .
+   *
+   * <p>
+   * the thread which requests while another thread dispatching leaves the request to that thread,
+   * so that the executor which runs the task in the caller never recurses .
+   * </p>
+   */
+  private void dispatch() {
+    if (dispatches.getAndIncrement() != 0) {
+      return;
+    }
+    int missed = 1;
+    do {
+      while (!pending.isEmpty() && permits.tryAcquire()) {
+        final Task task = pending.poll();
+        if (Objects.isNull(task) || task.result.isDone()) {
+          permits.release();
+          continue;
+        }
+        try {
+          executor.execute(task);
+        } catch (RejectedExecutionException e) {
+          permits.release();
+          task.result.completeExceptionally(e);
+        }
+      }
+      missed = dispatches.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  /**
+   * normalize the text by each chunks, until the result is done .
+   *
+   * @param flavor the kind of normalization
+   * @param text the string, may not be null
+   * @param result the result
+   */
+  private static void normalize(final Sweepr.Flavor flavor, final String text, final CompletableFuture<String> result) {
+    if (result.isDone()) {
+      return;
+    }
+    try {
+      final Sweepr.Chain chain = new Sweepr.Chain(flavor);
+      if (text.length() <= chunkSize) {
+        result.complete(chain.apply(text));
+
+        return;
+      }
+      for (int i = 0; i < text.length(); i += chunkSize) {
+        if (result.isDone()) {
+          return;
+        }
+        chain.accept(text, i, Math.min(text.length(), i + chunkSize));
+      }
+      result.complete(chain.finish().destination().toString());
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import lombok.NonNull;
+
+/**
+ * bulk normalization using {@link Commonizr}, which reuses the buffers across elements .
+ *
+ * <p>
+ * the result of each elements is the same as the {@link String} API of {@link Commonizr} . In parallel mode,
+ * arrays and lists are split into the tasks of {@link ForkJoinPool}, until the count of elements is less than or equal to the threshold .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+public final class CommonizrBatch {
+
+  /** the default count of elements which a task normalizes sequentially . */
+  static final int defaultThreshold = 0x400;
+
+  /** the kind of normalization . */
+  private final Sweepr.Flavor flavor;
+
+  /** the pool to run tasks, or null if sequential . */
+  private final ForkJoinPool pool;
+
+  /** the count of elements which a task normalizes sequentially . */
+  private final int threshold;
+
+  /**
+   * a task which normalizes the elements of the range .
+   *
+   * @author furplag
+   *
+   */
+  private final class Task extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /** the source . */
+    private final String[] texts;
+
+    /** the destination . */
+    private final String[] results;
+
+    /** the index of the first element . */
+    private final int from;
+
+    /** the index after the last element . */
+    private final int to;
+
+    /**
+     * @param texts the source
+     * @param results the destination
+     * @param from the index of the first element
+     * @param to the index after the last element
+     */
+    private Task(final String[] texts, final String[] results, final int from, final int to) {
+      this.texts = texts;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void compute() {
+      if (to - from <= threshold) {
+        apply(texts, results, from, to);
+      } else {
+        final int middle = (from + to) >>> 1;
+        invokeAll(new Task(texts, results, from, middle), new Task(texts, results, middle, to));
+      }
+    }
+  }
+
+  /**
+   * @param flavor the kind of normalization
+   * @param pool the pool to run tasks, or null if sequential
+   * @param threshold the count of elements which a task normalizes sequentially, set one if this parameter is less than one
+   */
+  private CommonizrBatch(final Sweepr.Flavor flavor, final ForkJoinPool pool, final int threshold) {
+    this.flavor = flavor;
+    this.pool = pool;
+    this.threshold = Math.max(1, threshold);
+  }
+
+  /**
+   * returns a sequential bulk normalization using {@link Commonizr#denormalizeCjk(String)} .
+   *
+   * @return {@link CommonizrBatch}
+   */
+  public static CommonizrBatch denormalizeCjk() {
+    return new CommonizrBatch(Sweepr.Flavor.DenormalizeCjk, null, defaultThreshold);
+  }
+
+  /**
+   * returns a sequential bulk normalization using {@link Commonizr#hiraganize(String)} .
+   *
+   * @return {@link CommonizrBatch}
+   */
+  public static CommonizrBatch hiraganize() {
+    return new CommonizrBatch(Sweepr.Flavor.Hiraganize, null, defaultThreshold);
+  }
+
+  /**
+   * returns a sequential bulk normalization using {@link Commonizr#katakanize(String)} .
+   *
+   * @return {@link CommonizrBatch}
+   */
+  public static CommonizrBatch katakanize() {
+    return new CommonizrBatch(Sweepr.Flavor.Katakanize, null, defaultThreshold);
+  }
+
+  /**
+   * returns a sequential bulk normalization using {@link Commonizr#normalizeCjk(String)} .
+   *
+   * @return {@link CommonizrBatch}
+   */
+  public static CommonizrBatch normalizeCjk() {
+    return new CommonizrBatch(Sweepr.Flavor.NormalizeCjk, null, defaultThreshold);
+  }
+
+  /**
+   * returns a sequential bulk normalization using {@link Commonizr#optimize(String)} .
+   *
+   * @return {@link CommonizrBatch}
+   */
+  public static CommonizrBatch optimize() {
+    return new CommonizrBatch(Sweepr.Flavor.Optimize, null, defaultThreshold);
+  }
+
+  /**
+   * returns {@code true} if this normalizes in parallel .
+   *
+   * @return {@code true} if this normalizes in parallel
+   */
+  public boolean isParallel() {
+    return Objects.nonNull(pool);
+  }
+
+  /**
+   * returns a parallel bulk normalization using {@link ForkJoinPool#commonPool()} .
+   *
+   * @return {@link CommonizrBatch}
+   */
+  public CommonizrBatch parallel() {
+    return parallel(ForkJoinPool.commonPool(), defaultThreshold);
+  }
+
+  /**
+   * returns a parallel bulk normalization using the pool .
+   *
+   * @param pool the pool to run tasks, may not be null
+   * @param threshold the count of elements which a task normalizes sequentially, set one if this parameter is less than one
+   * @return {@link CommonizrBatch}
+   */
+  public CommonizrBatch parallel(@NonNull final ForkJoinPool pool, final int threshold) {
+    return new CommonizrBatch(flavor, pool, threshold);
+  }
+
+  /**
+   * returns a sequential bulk normalization .
+   *
+   * @return {@link CommonizrBatch}
+   */
+  public CommonizrBatch sequential() {
+    return new CommonizrBatch(flavor, null, threshold);
+  }
+
+  /**
+   * returns normalized texts .
+   *
+   * @param texts the strings, maybe null
+   * @return the new array of normalized texts, return null if the texts is null
+   */
+  public String[] apply(final String... texts) {
+    if (Objects.isNull(texts)) {
+      return null;
+    }
+    final String[] results = new String[texts.length];
+    if (isParallel() && texts.length > threshold) {
+      pool.invoke(new Task(texts, results, 0, texts.length));
+    } else {
+      apply(texts, results, 0, texts.length);
+    }
+
+    return results;
+  }
+
+  /**
+   * returns normalized texts .
+   *
+   * @param texts the strings, maybe null
+   * @return the new list of normalized texts, return null if the texts is null
+   */
+  public List<String> apply(final List<String> texts) {
+    return Objects.isNull(texts) ? null : Arrays.asList(apply(texts.toArray(new String[] {})));
+  }
+
+  /**
+   * returns the stream of normalized texts .
+   *
+   * <p>
+   * a sequential instance normalizes lazily, and reuses the buffers per threads, so that the result is safe to turn into parallel .
+   * a parallel instance collects the texts, and normalizes those in the pool with the threshold, same as {@link #apply(String...)} .
+   * </p>
+   *
+   * @param texts the strings, maybe null
+   * @return the stream of normalized texts, return null if the texts is null
+   */
+  public Stream<String> apply(final Stream<String> texts) {
+    if (Objects.isNull(texts)) {
+      return null;
+    } else if (isParallel()) {
+      return Arrays.stream(apply(texts.toArray(String[]::new)));
+    }
+    final ThreadLocal<Sweepr.Chain> chains = ThreadLocal.withInitial(() -> new Sweepr.Chain(flavor));
+
+    return texts.map((text) -> chains.get().apply(text));
+  }
+
+  /**
+   * normalizes the elements of the range .
+   *
+   * @param texts the source
+   * @param results the destination
+   * @param from the index of the first element
+   * @param to the index after the last element
+   */
+  private void apply(final String[] texts, final String[] results, final int from, final int to) {
+    final Sweepr.Chain chain = new Sweepr.Chain(flavor);
+    for (int i = from; i < to; i++) {
+      results[i] = chain.apply(texts[i]);
+    }
+  }
+}
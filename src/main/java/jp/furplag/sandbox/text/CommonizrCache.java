@@ -0,0 +1,559 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import lombok.NonNull;
+
+/**
+ * a bounded, concurrent memoization of normalization ( e.g. {@link Commonizr#normalizeCjk(String)} ) for repetitive inputs .
+ *
+ * <p>
+ * lookups never lock, and only one thread evicts at a time, so that the size may exceed the maximum temporarily by the count of threads which inserting .
+ * lookups of {@link Policy#TinyLfu} record the key into a lossy striped buffer, and the frequency sketch updates only while evicting .
+ * new entries of {@link Policy#TinyLfu} enter a small window first, so that a burst of new keys hits before its frequency grows .
+ * The text which is longer than the max key length never be cached .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+public final class CommonizrCache implements UnaryOperator<String> {
+
+  /** the default max length of the text to cache . */
+  static final int defaultMaxKeyLength = 0x40;
+
+  /**
+   * eviction policy .
+   *
+   * @author furplag
+   *
+   */
+  public static enum Policy {/* @formatter:off */
+    /** evicts least recently used, approximated with CLOCK ( second chance ) . */
+    Lru,
+    /**
+     * new entries enter a small window ( one percent of the max count ) first,
+     * and the oldest entry which leaves the window is admitted only if more frequently used than the victim of {@link #Lru} ( W-TinyLFU ) .
+     */
+    TinyLfu;
+  /* @formatter:on */}
+
+  /**
+   * the cached result .
+   *
+   * @author furplag
+   *
+   */
+  private static final class Entry {
+
+    /** the result of normalization . */
+    private final String value;
+
+    /** {@code true} if used after the clock hand passed . */
+    private volatile boolean referenced;
+
+    /** {@code true} if in the window of {@link Policy#TinyLfu}, guarded by the lock of eviction . */
+    private boolean windowed;
+
+    /**
+     * @param value the result of normalization
+     */
+    private Entry(final String value) {
+      this.value = value;
+    }
+  }
+
+  /**
+   * approximate frequency of keys, count-min sketch of 4 bit counters which halved periodically .
+   *
+   * @author furplag
+   *
+   */
+  private static final class Sketch {
+
+    /** the seeds of each rows . */
+    private static final int[] seeds = {0x97CB3127, 0x7ED55D16, 0x165667B1, 0x85EBCA6B};
+
+    /** the max of counters . */
+    private static final byte maxCount = 15;
+
+    /** counters, guarded by the lock of eviction . */
+    private final byte[] counters;
+
+    /** the mask of index in a row . */
+    private final int mask;
+
+    /** the count of increments which halve counters . */
+    private final int sampleSize;
+
+    /** the count of increments after halved . */
+    private int increments;
+
+    /**
+     * @param maximumSize the max count of entries
+     */
+    private Sketch(final int maximumSize) {
+      final int size = Math.max(8, Math.min(maximumSize, 1 << 20));
+      final int width = Integer.highestOneBit(size - 1) << 2;
+      counters = new byte[width * seeds.length];
+      mask = width - 1;
+      sampleSize = size * 10;
+    }
+
+    /**
+     * returns the index of the counter .
+     *
+     * @param hash the hash of key
+     * @param row the row
+     * @return the index of the counter
+     */
+    private int indexOf(final int hash, final int row) {
+      final int h = hash * seeds[row];
+
+      return row * (mask + 1) + ((h ^ (h >>> 16)) & mask);
+    }
+
+    /**
+     * returns the estimated frequency of the key .
+     *
+     * @param key the key
+     * @return the estimated frequency of the key
+     */
+    private int frequency(final String key) {
+      int frequency = maxCount;
+      for (int row = 0; row < seeds.length; row++) {
+        frequency = Math.min(frequency, counters[indexOf(key.hashCode(), row)]);
+      }
+
+      return frequency;
+    }
+
+    /**
+     * increments the frequency of the key .
+     *
+     * @param key the key
+     */
+    private void increment(final String key) {
+      for (int row = 0; row < seeds.length; row++) {
+        final int index = indexOf(key.hashCode(), row);
+        if (counters[index] < maxCount) {
+          counters[index]++;
+        }
+      }
+      if (++increments >= sampleSize) {
+        increments = 0;
+        for (int i = 0; i < counters.length; i++) {
+          counters[i] >>= 1;
+        }
+      }
+    }
+
+    /** reset all counters . */
+    private void clear() {
+      Arrays.fill(counters, (byte) 0);
+      increments = 0;
+    }
+  }
+
+  /**
+   * lossy striped buffer of the keys which looked up, to update {@link Sketch} later in batch .
+   *
+   * <p>
+   * each threads write to the stripe of its own mostly, without any atomic read-modify-write,
+   * so that the keys may drop if the stripe overflows or threads race, which is acceptable as sampling of frequency .
+   * </p>
+   *
+   * @author furplag
+   *
+   */
+  private static final class Buffer {
+
+    /** the count of slots in a stripe . */
+    private static final int stripeSize = 0x10;
+
+    /** the distance of positions in {@link #positions}, to avoid false sharing . */
+    private static final int padding = 0x10;
+
+    /** the random hash of each threads to choose the stripe, which spreads even if threads are virtual . */
+    private static final ThreadLocal<Integer> probes = ThreadLocal.withInitial(() -> ThreadLocalRandom.current().nextInt());
+
+    /** the keys which waiting to record . */
+    private final AtomicReferenceArray<String> slots;
+
+    /** the position to write of each stripes, may lose the race of updates . */
+    private final int[] positions;
+
+    /** the mask of stripes . */
+    private final int mask;
+
+    /** constructs the buffer which has stripes twice the count of processors at most . */
+    private Buffer() {
+      final int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1) << 1;
+      slots = new AtomicReferenceArray<>(stripes * stripeSize);
+      positions = new int[stripes * padding];
+      mask = stripes - 1;
+    }
+
+    /**
+     * add the key to the stripe of current thread .
+     *
+     * @param key the key
+     * @return {@code true} if the stripe has filled, and should drain
+     */
+    private boolean offer(final String key) {
+      final int stripe = probes.get() & mask;
+      final int position = positions[stripe * padding]++;
+      slots.lazySet(stripe * stripeSize + (position & (stripeSize - 1)), key);
+
+      return (position & (stripeSize - 1)) == stripeSize - 1;
+    }
+
+    /**
+     * record all keys in this buffer to the sketch, guarded by the lock of eviction .
+     *
+     * @param sketch {@link Sketch}
+     */
+    private void drainTo(final Sketch sketch) {
+      for (int i = 0; i < slots.length(); i++) {
+        final String key = slots.get(i);
+        if (key != null) {
+          slots.lazySet(i, null);
+          sketch.increment(key);
+        }
+      }
+    }
+
+    /** discard all keys . */
+    private void clear() {
+      for (int i = 0; i < slots.length(); i++) {
+        slots.lazySet(i, null);
+      }
+    }
+  }
+
+  /** the normalization . */
+  private final UnaryOperator<String> function;
+
+  /** the max count of entries . */
+  private final int maximumSize;
+
+  /** the max length of the text to cache . */
+  private final int maxKeyLength;
+
+  /** eviction policy . */
+  private final Policy policy;
+
+  /** entries . */
+  private final ConcurrentHashMap<String, Entry> entries;
+
+  /** the frequency of keys, or null unless {@link Policy#TinyLfu} . */
+  private final Sketch sketch;
+
+  /** the keys which waiting to record to {@link #sketch}, or null unless {@link Policy#TinyLfu} . */
+  private final Buffer buffer;
+
+  /** the max count of entries in {@link #window} . */
+  private final int windowSize;
+
+  /** the keys of new entries in order of admission, guarded by {@link #evictionLock}, or null unless {@link Policy#TinyLfu} . */
+  private final Deque<String> window;
+
+  /** the lock of eviction, never waits for . */
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  /** the clock hand, guarded by {@link #evictionLock} . */
+  private Iterator<Map.Entry<String, Entry>> hand;
+
+  /** the count of hits . */
+  private final LongAdder hits = new LongAdder();
+
+  /** the count of misses . */
+  private final LongAdder misses = new LongAdder();
+
+  /** the count of evictions . */
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param function the normalization
+   * @param maximumSize the max count of entries, set one if this parameter is less than one
+   * @param maxKeyLength the max length of the text to cache
+   * @param policy eviction policy
+   */
+  private CommonizrCache(final UnaryOperator<String> function, final int maximumSize, final int maxKeyLength, final Policy policy) {
+    this.function = function;
+    this.maximumSize = Math.max(1, maximumSize);
+    this.maxKeyLength = maxKeyLength;
+    this.policy = policy;
+    entries = new ConcurrentHashMap<>(Math.min(this.maximumSize, 1 << 16));
+    sketch = Policy.TinyLfu.equals(policy) ? new Sketch(this.maximumSize) : null;
+    buffer = Objects.isNull(sketch) ? null : new Buffer();
+    windowSize = this.maximumSize / 100;
+    window = Objects.isNull(sketch) ? null : new ArrayDeque<>(windowSize + 1);
+  }
+
+  /**
+   * returns a memoization of the normalization, using {@link Policy#TinyLfu} .
+   *
+   * @param function the normalization ( e.g. {@code Commonizr::normalizeCjk} ), may not be null
+   * @param maximumSize the max count of entries, set one if this parameter is less than one
+   * @return {@link CommonizrCache}
+   */
+  public static CommonizrCache of(final UnaryOperator<String> function, final int maximumSize) {
+    return of(function, maximumSize, defaultMaxKeyLength, Policy.TinyLfu);
+  }
+
+  /**
+   * returns a memoization of the normalization .
+   *
+   * @param function the normalization ( e.g. {@code Commonizr::normalizeCjk} ), may not be null
+   * @param maximumSize the max count of entries, set one if this parameter is less than one
+   * @param maxKeyLength the max length of the text to cache
+   * @param policy eviction policy, may not be null
+   * @return {@link CommonizrCache}
+   */
+  public static CommonizrCache of(@NonNull final UnaryOperator<String> function, final int maximumSize, final int maxKeyLength, @NonNull final Policy policy) {
+    return new CommonizrCache(function, maximumSize, maxKeyLength, policy);
+  }
+
+  /**
+   * returns the result of the normalization, which cached if the text is repetitive .
+   *
+   * @param text the string, maybe null
+   * @return the result of the normalization
+   */
+  @Override
+  public String apply(final String text) {
+    if (Objects.isNull(text) || text.length() > maxKeyLength) {
+      return function.apply(text);
+    }
+    if (buffer != null && buffer.offer(text) && evictionLock.tryLock()) {
+      try {
+        buffer.drainTo(sketch);
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+    final Entry entry = entries.get(text);
+    if (entry != null) {
+      hits.increment();
+      if (!entry.referenced) {
+        entry.referenced = true;
+      }
+
+      return entry.value;
+    }
+    misses.increment();
+    final String value = function.apply(text);
+    if (value != null) {
+      admit(text, value);
+    }
+
+    return value;
+  }
+
+  /**
+   * add the entry, evicts victims if the size reaches the maximum .
+   *
+   * @param text the key
+   * @param value the result of normalization
+   */
+  private void admit(final String text, final String value) {
+    if (entries.size() < maximumSize) {
+      entries.putIfAbsent(text, new Entry(value));
+    } else if (evictionLock.tryLock()) {
+      try {
+        if (sketch != null) {
+          admitWindow(text, value);
+
+          return;
+        }
+        while (entries.size() >= maximumSize) {
+          final Map.Entry<String, Entry> victim = victim();
+          if (victim == null) {
+            break;
+          } else if (entries.remove(victim.getKey(), victim.getValue())) {
+            evictions.increment();
+          }
+        }
+        entries.putIfAbsent(text, new Entry(value));
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * add the entry to the window, and then the entry which leaves the window competes with the victim in frequency, guarded by {@link #evictionLock} .
+   *
+   * @param text the key
+   * @param value the result of normalization
+   */
+  private void admitWindow(final String text, final String value) {
+    buffer.drainTo(sketch);
+    final Entry entry = new Entry(value);
+    entry.windowed = true;
+    if (entries.putIfAbsent(text, entry) != null) {
+      return;
+    }
+    window.add(text);
+    while (entries.size() > maximumSize) {
+      final Map.Entry<String, Entry> victim = victim();
+      if (window.size() <= windowSize && victim == null) {
+        break;
+      } else if (window.size() <= windowSize) {
+        evict(victim.getKey(), victim.getValue());
+        continue;
+      }
+      final String candidate = candidate();
+      if (victim == null || sketch.frequency(candidate) > sketch.frequency(victim.getKey())) {
+        entries.get(candidate).windowed = false;
+        if (victim != null) {
+          evict(victim.getKey(), victim.getValue());
+        }
+      } else {
+        evict(candidate, entries.get(candidate));
+      }
+    }
+    while (window.size() > windowSize) {
+      entries.get(candidate()).windowed = false;
+    }
+  }
+
+  /**
+   * removes the oldest entry from the window .
+   *
+   * @return the key which leaves the window
+   */
+  private String candidate() {
+    return window.poll();
+  }
+
+  /**
+   * removes the entry, and counts the eviction .
+   *
+   * @param key the key
+   * @param entry the entry
+   */
+  private void evict(final String key, final Entry entry) {
+    if (entries.remove(key, entry)) {
+      evictions.increment();
+    }
+  }
+
+  /**
+   * returns the entry which not referenced since the clock hand passed, except the entries in the window .
+   *
+   * @return the victim, or null if empty
+   */
+  private Map.Entry<String, Entry> victim() {
+    Map.Entry<String, Entry> victim = null;
+    for (int i = 0, limit = entries.size() * 2 + 1; i < limit; i++) {
+      if (hand == null || !hand.hasNext()) {
+        hand = entries.entrySet().iterator();
+      }
+      if (!hand.hasNext()) {
+        break;
+      }
+      final Map.Entry<String, Entry> next = hand.next();
+      if (next.getValue().windowed) {
+        continue;
+      }
+      victim = next;
+      if (!victim.getValue().referenced) {
+        break;
+      }
+      victim.getValue().referenced = false;
+    }
+
+    return victim;
+  }
+
+  /** remove all entries, and reset counters . */
+  public void clear() {
+    evictionLock.lock();
+    try {
+      entries.clear();
+      hand = null;
+      if (sketch != null) {
+        buffer.clear();
+        sketch.clear();
+        window.clear();
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+    hits.reset();
+    misses.reset();
+    evictions.reset();
+  }
+
+  /**
+   * returns the count of evictions .
+   *
+   * @return the count of evictions
+   */
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * returns eviction policy .
+   *
+   * @return {@link Policy}
+   */
+  public Policy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * returns the count of hits .
+   *
+   * @return the count of hits
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * returns the count of misses, except the text which never be cached .
+   *
+   * @return the count of misses
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * returns the count of entries .
+   *
+   * @return the count of entries
+   */
+  public int size() {
+    return entries.size();
+  }
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.NonNull;
+
+/**
+ * an in-memory n-gram index of the text, which matches regardless of kana type or width .
+ *
+ * <p>
+ * each entries are stored under the key which normalized using {@link Commonizr#hiraganize(String)},
+ * and the characters and the bigrams of the key are registered to primitive posting lists .
+ * A query looks up the posting lists of its own n-grams, intersects them from the shortest one,
+ * and then verifies the candidates, so that no entry scans linearly .
+ * </p>
+ * <p>
+ * results are ranked as exact match, prefix match and substring match, then shorter key first, then older entry first,
+ * and only the top of the ranking keeps in a bounded heap while verifying .
+ * </p>
+ * <p>
+ * entries are stored in slots in order of addition, and removing an entry leaves a tombstone in the slot .
+ * slots and posting lists are compacted at once when tombstones exceed living entries, so that churn does not grow the index .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+public final class CommonizrIndex {
+
+  /** the rank of exact match . */
+  private static final long exact = 0L;
+
+  /** the rank of prefix match . */
+  private static final long prefix = 1L;
+
+  /** the rank of substring match . */
+  private static final long substring = 2L;
+
+  /** posting lists of each characters . */
+  private final Map<Integer, Postings> unigrams = new HashMap<>();
+
+  /** posting lists of each bigrams . */
+  private final Map<Integer, Postings> bigrams = new HashMap<>();
+
+  /** lock . */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** the id of the entry in each slots, in ascending order . */
+  private int[] ids = new int[0x10];
+
+  /** the original text of the entry in each slots, or null if removed . */
+  private String[] texts = new String[0x10];
+
+  /** the normalized key of the entry in each slots, or null if removed . */
+  private String[] keys = new String[0x10];
+
+  /** the count of slots, including tombstones . */
+  private int slots;
+
+  /** the next id . */
+  private int nextId;
+
+  /** the count of entries . */
+  private int size;
+
+  /**
+   * sorted list of the slots of entries .
+   *
+   * @author furplag
+   *
+   */
+  private static final class Postings {
+
+    /** slots . */
+    private int[] slots = new int[4];
+
+    /** the count of slots . */
+    private int size;
+
+    /**
+     * add the slot which is greater than any slot in this list .
+     *
+     * @param slot the slot
+     */
+    private void add(final int slot) {
+      if (size > 0 && slots[size - 1] == slot) {
+        return;
+      } else if (size >= slots.length) {
+        slots = Arrays.copyOf(slots, size << 1);
+      }
+      slots[size++] = slot;
+    }
+
+    /**
+     * replace the slots with the new one, and drops the slots which removed .
+     *
+     * @param compacted the new slot of each slots, or -1 if removed
+     * @return {@code true} if this list become empty
+     */
+    private boolean compact(final int[] compacted) {
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+        if (compacted[slots[i]] > -1) {
+          slots[count++] = compacted[slots[i]];
+        }
+      }
+      size = count;
+      if (size < slots.length >> 2) {
+        slots = Arrays.copyOf(slots, Math.max(4, size << 1));
+      }
+
+      return size < 1;
+    }
+
+    /**
+     * returns {@code true} if this list contains the slot .
+     *
+     * @param slot the slot
+     * @return {@code true} if this list contains the slot
+     */
+    private boolean contains(final int slot) {
+      return Arrays.binarySearch(slots, 0, size, slot) > -1;
+    }
+  }
+
+  /**
+   * max heap of the ranks, which keeps the top of the ranking only .
+   *
+   * @author furplag
+   *
+   */
+  private static final class Ranking {
+
+    /** ranks . */
+    private final long[] ranks;
+
+    /** the count of ranks . */
+    private int size;
+
+    /**
+     * {@link Ranking} .
+     *
+     * @param limit the max count of ranks
+     */
+    private Ranking(final int limit) {
+      ranks = new long[limit];
+    }
+
+    /**
+     * returns {@code true} if the rank may be in the top of the ranking .
+     *
+     * @param rank the rank
+     * @return {@code true} if the rank may be in the top of the ranking
+     */
+    private boolean accepts(final long rank) {
+      return size < ranks.length || rank < ranks[0];
+    }
+
+    /**
+     * add the rank, and drops the lowest one if overflowed .
+     *
+     * @param rank the rank
+     */
+    private void offer(final long rank) {
+      if (size < ranks.length) {
+        int i = size++;
+        for (int parent = (i - 1) >> 1; i > 0 && ranks[parent] < rank; i = parent, parent = (i - 1) >> 1) {
+          ranks[i] = ranks[parent];
+        }
+        ranks[i] = rank;
+      } else if (rank < ranks[0]) {
+        int i = 0;
+        for (int child = 1; child < size; i = child, child = (i << 1) + 1) {
+          if (child + 1 < size && ranks[child] < ranks[child + 1]) {
+            child++;
+          }
+          if (ranks[child] <= rank) {
+            break;
+          }
+          ranks[i] = ranks[child];
+        }
+        ranks[i] = rank;
+      }
+    }
+
+    /**
+     * returns the ranks in ascending order .
+     *
+     * @return the ranks
+     */
+    private long[] sorted() {
+      final long[] sorted = Arrays.copyOf(ranks, size);
+      Arrays.sort(sorted);
+
+      return sorted;
+    }
+  }
+
+  /**
+   * returns the key of the text .
+   *
+   * @param text the text, maybe null
+   * @return the key
+   */
+  private static String keyOf(final String text) {
+    return Commonizr.hiraganize(text);
+  }
+
+  /**
+   * returns the bigram which starts the index of the key .
+   *
+   * @param key the key
+   * @param index the index of the key
+   * @return the bigram
+   */
+  private static int bigram(final String key, final int index) {
+    return (key.charAt(index) << 16) | key.charAt(index + 1);
+  }
+
+  /**
+   * returns the slot of the entry .
+   *
+   * @param id the id of the entry
+   * @return the slot, or -1 if the entry does not exist
+   */
+  private int slotOf(final int id) {
+    final int slot = id < 0 || id >= nextId ? -1 : Arrays.binarySearch(ids, 0, slots, id);
+
+    return slot < 0 || keys[slot] == null ? -1 : slot;
+  }
+
+  /**
+   * drops tombstones from slots and posting lists, and then shrinks the slots .
+   */
+  private void compact() {
+    final int[] compacted = new int[slots];
+    int count = 0;
+    for (int slot = 0; slot < slots; slot++) {
+      compacted[slot] = keys[slot] == null ? -1 : count;
+      if (keys[slot] != null) {
+        ids[count] = ids[slot];
+        texts[count] = texts[slot];
+        keys[count++] = keys[slot];
+      }
+    }
+    Arrays.fill(texts, count, slots, null);
+    Arrays.fill(keys, count, slots, null);
+    slots = count;
+    unigrams.values().removeIf((postings) -> postings.compact(compacted));
+    bigrams.values().removeIf((postings) -> postings.compact(compacted));
+    final int capacity = Math.max(0x10, Integer.highestOneBit(Math.max(1, slots)) << 1);
+    if (capacity < ids.length) {
+      ids = Arrays.copyOf(ids, capacity);
+      texts = Arrays.copyOf(texts, capacity);
+      keys = Arrays.copyOf(keys, capacity);
+    }
+  }
+
+  /**
+   * add the text to this index .
+   *
+   * @param text the text, may not be null
+   * @return the id of the entry
+   */
+  public int add(@NonNull final String text) {
+    final String key = keyOf(text);
+    lock.writeLock().lock();
+    try {
+      final int id = nextId++;
+      final int slot = slots++;
+      if (slot >= ids.length) {
+        ids = Arrays.copyOf(ids, ids.length << 1);
+        texts = Arrays.copyOf(texts, texts.length << 1);
+        keys = Arrays.copyOf(keys, keys.length << 1);
+      }
+      ids[slot] = id;
+      texts[slot] = text;
+      keys[slot] = key;
+      size++;
+      for (int i = 0; i < key.length(); i++) {
+        unigrams.computeIfAbsent((int) key.charAt(i), (k) -> new Postings()).add(slot);
+        if (i + 1 < key.length()) {
+          bigrams.computeIfAbsent(bigram(key, i), (k) -> new Postings()).add(slot);
+        }
+      }
+
+      return id;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * remove the entry from this index .
+   *
+   * <p>
+   * the entry remains in the posting lists as a tombstone until compacted .
+   * </p>
+   *
+   * @param id the id of the entry
+   * @return {@code true} if the entry has removed
+   */
+  public boolean remove(final int id) {
+    lock.writeLock().lock();
+    try {
+      final int slot = slotOf(id);
+      if (slot < 0) {
+        return false;
+      }
+      texts[slot] = null;
+      keys[slot] = null;
+      size--;
+      if (slots - size > size) {
+        compact();
+      }
+
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * returns the original text of the entry .
+   *
+   * @param id the id of the entry
+   * @return the text, or null if the entry does not exist
+   */
+  public String get(final int id) {
+    lock.readLock().lock();
+    try {
+      final int slot = slotOf(id);
+
+      return slot < 0 ? null : texts[slot];
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * returns the count of entries .
+   *
+   * @return the count of entries
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * returns the count of slots, including tombstones which not compacted yet .
+   *
+   * @return the count of slots
+   */
+  int slots() {
+    lock.readLock().lock();
+    try {
+      return slots;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * returns the ids of entries which the key starts with the key of the query, ranked .
+   *
+   * @param query the query, maybe null
+   * @param limit the max count of results
+   * @return the ids of entries
+   */
+  public int[] prefix(final String query, final int limit) {
+    return search(query, limit, true);
+  }
+
+  /**
+   * returns the ids of entries which the key contains the key of the query, ranked .
+   *
+   * @param query the query, maybe null
+   * @param limit the max count of results
+   * @return the ids of entries
+   */
+  public int[] search(final String query, final int limit) {
+    return search(query, limit, false);
+  }
+
+  /**
+   * returns the ids of entries which matches the query, ranked .
+   *
+   * @param query the query, maybe null
+   * @param limit the max count of results
+   * @param prefixOnly {@code true} if accepts prefix match only
+   * @return the ids of entries
+   */
+  private int[] search(final String query, final int limit, final boolean prefixOnly) {
+    final String key = keyOf(query);
+    if (key == null || key.isEmpty() || limit < 1) {
+      return new int[0];
+    }
+    lock.readLock().lock();
+    try {
+      final Postings[] postings = new Postings[Math.max(1, key.length() - 1)];
+      for (int i = 0; i < postings.length; i++) {
+        postings[i] = key.length() < 2 ? unigrams.get((int) key.charAt(0)) : bigrams.get(bigram(key, i));
+        if (postings[i] == null) {
+          return new int[0];
+        }
+      }
+      Arrays.sort(postings, (a, b) -> Integer.compare(a.size, b.size));
+      final Ranking ranking = new Ranking(Math.min(limit, postings[0].size));
+      for (int i = 0; i < postings[0].size; i++) {
+        final int slot = postings[0].slots[i];
+        if (keys[slot] != null && ranking.accepts(rankOf(slot, keys[slot].length() == key.length() ? exact : prefix, keys[slot].length()))) {
+          final long rank = rankOf(slot, key, postings, prefixOnly);
+          if (rank > -1) {
+            ranking.offer(rank);
+          }
+        }
+      }
+
+      return Arrays.stream(ranking.sorted()).mapToInt((rank) -> ids[(int) rank]).toArray();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * returns the rank of the entry, which sorts in ascending order .
+   *
+   * @param slot the slot of the entry
+   * @param key the key of the query
+   * @param postings the posting lists of the query
+   * @param prefixOnly {@code true} if accepts prefix match only
+   * @return the rank, or -1 if the entry does not match
+   */
+  private long rankOf(final int slot, final String key, final Postings[] postings, final boolean prefixOnly) {
+    for (int i = 1; i < postings.length; i++) {
+      if (!postings[i].contains(slot)) {
+        return -1;
+      }
+    }
+    final String entry = keys[slot];
+    final int index = entry.indexOf(key);
+    if (index < 0 || (prefixOnly && index > 0)) {
+      return -1;
+    }
+
+    return rankOf(slot, entry.length() == key.length() ? exact : index == 0 ? prefix : substring, entry.length());
+  }
+
+  /**
+   * returns the rank of the entry, which sorts in ascending order .
+   *
+   * @param slot the slot of the entry
+   * @param match the rank of match
+   * @param length the length of the key of the entry
+   * @return the rank
+   */
+  private static long rankOf(final int slot, final long match, final int length) {
+    return (match << 61) | ((long) Math.min(length, 0x1FFF_FFFF) << 32) | slot;
+  }
+}
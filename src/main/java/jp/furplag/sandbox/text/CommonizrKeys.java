@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * hashing, equivalence and ordering of the text in the semantics of {@link Commonizr#normalizeCjk(String)} .
+ *
+ * <p>
+ * the text which is normalized already is read as it is, and the other text is normalized into the buffers per thread,
+ * so that no copy of the text allocates per each comparison . The results are the same as the methods of the normalized {@link String} .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+public abstract class CommonizrKeys {
+
+  /** {@link #compare(CharSequence, CharSequence)}, null first . */
+  private static final Comparator<CharSequence> comparator = CommonizrKeys::compare;
+
+  /** normalizers per thread, for each sides of comparison . */
+  private static final ThreadLocal<Sweepr.Chain[]> chains = ThreadLocal.withInitial(() -> new Sweepr.Chain[] { new Sweepr.Chain(Sweepr.Flavor.NormalizeCjk), new Sweepr.Chain(Sweepr.Flavor.NormalizeCjk) });
+
+  /**
+   * a key of {@link java.util.Map Map(s)}, which has the semantics of {@link Commonizr#normalizeCjk(String)} .
+   *
+   * @author furplag
+   *
+   */
+  public static final class Key implements Comparable<Key> {
+
+    /** the text . */
+    private final String text;
+
+    /** the hash code, computed lazily, or zero if not computed yet . */
+    private int hash;
+
+    /**
+     * @param text the text, maybe null
+     */
+    private Key(final String text) {
+      this.text = text;
+    }
+
+    /**
+     * returns the text which the key represents, without normalization .
+     *
+     * @return the text
+     */
+    public String getText() {
+      return text;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int compareTo(final Key another) {
+      return compare(text, another.text);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(final Object obj) {
+      return this == obj || (obj instanceof Key && CommonizrKeys.equals(text, ((Key) obj).text));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        h = CommonizrKeys.hashCode(text);
+        hash = h;
+      }
+
+      return h;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+      return text;
+    }
+  }
+
+  /**
+   * returns the key of the text, which equals to the key of the text which normalizes the same .
+   *
+   * @param text the text, maybe null
+   * @return {@link Key}
+   */
+  public static Key of(final String text) {
+    return new Key(text);
+  }
+
+  /**
+   * returns a {@link Comparator} which compares the text in the semantics of {@link Commonizr#normalizeCjk(String)}, null first .
+   *
+   * @return {@link Comparator}
+   */
+  public static Comparator<CharSequence> comparator() {
+    return comparator;
+  }
+
+  /**
+   * same as {@code normalizeCjk(text).compareTo(normalizeCjk(another))}, null first .
+   *
+   * @param text the text, maybe null
+   * @param another the text, maybe null
+   * @return the value 0 if the both normalize the same, a value less than 0 if the text is lexicographically less than another, and greater than 0 if not
+   */
+  public static int compare(final CharSequence text, final CharSequence another) {
+    if (Objects.isNull(text) || Objects.isNull(another)) {
+      return Objects.isNull(text) ? (Objects.isNull(another) ? 0 : -1) : 1;
+    }
+    final CharSequence normalized = normalized(text, 0);
+    final CharSequence normalizedAnother = normalized(another, 1);
+    final int length = Math.min(normalized.length(), normalizedAnother.length());
+    for (int i = 0; i < length; i++) {
+      final char c = normalized.charAt(i);
+      final char d = normalizedAnother.charAt(i);
+      if (c != d) {
+        return c - d;
+      }
+    }
+
+    return normalized.length() - normalizedAnother.length();
+  }
+
+  /**
+   * same as {@code Objects.equals(normalizeCjk(text), normalizeCjk(another))} .
+   *
+   * @param text the text, maybe null
+   * @param another the text, maybe null
+   * @return {@code true} if the both normalize the same
+   */
+  public static boolean equals(final CharSequence text, final CharSequence another) {
+    return text == another || (Objects.nonNull(text) && Objects.nonNull(another) && compare(text, another) == 0);
+  }
+
+  /**
+   * same as {@code Objects.hashCode(normalizeCjk(text))} .
+   *
+   * @param text the text, maybe null
+   * @return the hash code of normalized text
+   */
+  public static int hashCode(final CharSequence text) {
+    if (Objects.isNull(text)) {
+      return 0;
+    }
+    final CharSequence normalized = normalized(text, 0);
+    int hash = 0;
+    for (int i = 0; i < normalized.length(); i++) {
+      hash = 31 * hash + normalized.charAt(i);
+    }
+
+    return hash;
+  }
+
+  /**
+   * returns the normalized text, which is the text itself or the buffer of the thread .
+   *
+   * @param text the text, may not be null
+   * @param side the index of buffers
+   * @return the normalized text, which may change by next call in the same thread
+   */
+  private static CharSequence normalized(final CharSequence text, final int side) {
+    return Sweepr.isNormalized(text, true) ? text : chains.get()[side].reset().accept(text, 0, text.length()).finish().destination();
+  }
+
+  /** the instance should NOT be constructed in standard programming. */
+  private CommonizrKeys() {}
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import lombok.NonNull;
+
+/**
+ * a {@link Flow.Processor} which normalizes each elements using the rules of {@link Commonizr} or {@link Regexr} .
+ *
+ * <p>
+ * the processor never requests to the upstream more than the demand of the downstream, and requests in batches up to the batch size,
+ * so that the count of signals is amortized . The normalizations of {@link Commonizr} reuse the buffers across elements .
+ * </p>
+ *
+ * @author furplag
+ *
+ * @param <T> the type of elements
+ */
+public final class CommonizrProcessor<T> implements Flow.Processor<T, T> {
+
+  /** the default count of elements to request at once . */
+  static final int defaultBatchSize = 0x100;
+
+  /** the normalization of each elements . */
+  private final Function<T, T> function;
+
+  /** the count of elements to request at once . */
+  private final int batchSize;
+
+  /** the upstream, or null if not subscribed yet . */
+  private Flow.Subscription upstream;
+
+  /** the downstream, or null if not subscribed yet . */
+  private Flow.Subscriber<? super T> downstream;
+
+  /** the demand of the downstream, which not delivered yet . */
+  private long demand;
+
+  /** the count of elements which requested to the upstream, and not arrived yet . */
+  private long outstanding;
+
+  /** {@code true} if the upstream has terminated . */
+  private boolean done;
+
+  /** the error which the upstream has signaled, or null . */
+  private Throwable error;
+
+  /** {@code true} if the downstream has cancelled, or has received the terminal signal . */
+  private boolean cancelled;
+
+  /** the normalized elements which not delivered yet, never more than the elements requested to the upstream . */
+  private final Deque<T> queue = new ArrayDeque<>();
+
+  /** {@code true} if {@link Flow.Subscriber#onSubscribe(Flow.Subscription)} of the downstream has returned . */
+  private boolean subscribed;
+
+  /** {@code true} if a thread is delivering signals to the downstream . */
+  private boolean draining;
+
+  /**
+   * @param function the normalization of each elements
+   * @param batchSize the count of elements to request at once, set one if this parameter is less than one
+   */
+  CommonizrProcessor(final Function<T, T> function, final int batchSize) {
+    this.function = function;
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  /**
+   * returns a processor which normalizes each elements using the rule, e.g.) {@link Commonizr#trim(String)}, {@link RegexrChain#replaceAll(String)} .
+   *
+   * @param rule the rule, may not be null
+   * @return {@link CommonizrProcessor}
+   */
+  public static CommonizrProcessor<String> of(@NonNull final UnaryOperator<String> rule) {
+    return new CommonizrProcessor<>(rule, defaultBatchSize);
+  }
+
+  /**
+   * returns a processor which normalizes the value of each entries using the rule, keeps the key .
+   *
+   * @param <K> the type of keys
+   * @param rule the rule, may not be null
+   * @return {@link CommonizrProcessor}
+   */
+  public static <K> CommonizrProcessor<Map.Entry<K, String>> keyed(@NonNull final UnaryOperator<String> rule) {
+    return new CommonizrProcessor<>((entry) -> new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), rule.apply(entry.getValue())), defaultBatchSize);
+  }
+
+  /**
+   * returns a processor which normalizes each elements using {@link Commonizr#denormalizeCjk(String)} .
+   *
+   * @return {@link CommonizrProcessor}
+   */
+  public static CommonizrProcessor<String> denormalizeCjk() {
+    return of(new Sweepr.Chain(Sweepr.Flavor.DenormalizeCjk)::apply);
+  }
+
+  /**
+   * returns a processor which normalizes each elements using {@link Commonizr#hiraganize(String)} .
+   *
+   * @return {@link CommonizrProcessor}
+   */
+  public static CommonizrProcessor<String> hiraganize() {
+    return of(new Sweepr.Chain(Sweepr.Flavor.Hiraganize)::apply);
+  }
+
+  /**
+   * returns a processor which normalizes each elements using {@link Commonizr#katakanize(String)} .
+   *
+   * @return {@link CommonizrProcessor}
+   */
+  public static CommonizrProcessor<String> katakanize() {
+    return of(new Sweepr.Chain(Sweepr.Flavor.Katakanize)::apply);
+  }
+
+  /**
+   * returns a processor which normalizes each elements using {@link Commonizr#normalizeCjk(String)} .
+   *
+   * @return {@link CommonizrProcessor}
+   */
+  public static CommonizrProcessor<String> normalizeCjk() {
+    return of(new Sweepr.Chain(Sweepr.Flavor.NormalizeCjk)::apply);
+  }
+
+  /**
+   * returns a processor which normalizes each elements using {@link Commonizr#optimize(String)} .
+   *
+   * @return {@link CommonizrProcessor}
+   */
+  public static CommonizrProcessor<String> optimize() {
+    return of(new Sweepr.Chain(Sweepr.Flavor.Optimize)::apply);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+    Objects.requireNonNull(subscriber);
+    final boolean rejected;
+    synchronized (this) {
+      rejected = downstream != null;
+      if (!rejected) {
+        downstream = subscriber;
+      }
+    }
+    if (rejected) {
+      subscriber.onSubscribe(new Flow.Subscription() {/* @formatter:off */
+        @Override public void request(long n) {}
+        @Override public void cancel() {}
+      /* @formatter:on */});
+      subscriber.onError(new IllegalStateException("the processor has already subscribed ."));
+
+      return;
+    }
+    subscriber.onSubscribe(new Flow.Subscription() {
+
+      @Override
+      public void request(final long n) {
+        if (n < 1) {
+          fail(new IllegalArgumentException(String.format("the request must be positive: %d .", n)));
+
+          return;
+        }
+        synchronized (CommonizrProcessor.this) {
+          demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        }
+        drain();
+        refill();
+      }
+
+      @Override
+      public void cancel() {
+        final Flow.Subscription subscription;
+        synchronized (CommonizrProcessor.this) {
+          cancelled = true;
+          queue.clear();
+          subscription = upstream;
+        }
+        if (subscription != null) {
+          subscription.cancel();
+        }
+      }
+    });
+    synchronized (this) {
+      subscribed = true;
+    }
+    drain();
+    refill();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void onSubscribe(final Flow.Subscription subscription) {
+    Objects.requireNonNull(subscription);
+    synchronized (this) {
+      if (upstream != null || cancelled) {
+        subscription.cancel();
+
+        return;
+      }
+      upstream = subscription;
+    }
+    refill();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void onNext(final T item) {
+    Objects.requireNonNull(item);
+    final T normalized;
+    try {
+      normalized = function.apply(item);
+    } catch (RuntimeException e) {
+      upstream.cancel();
+      onError(e);
+
+      return;
+    }
+    synchronized (this) {
+      outstanding--;
+      if (!cancelled) {
+        queue.add(normalized);
+      }
+    }
+    drain();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void onError(final Throwable throwable) {
+    synchronized (this) {
+      if (done) {
+        return;
+      }
+      done = true;
+      error = Objects.requireNonNull(throwable);
+    }
+    drain();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void onComplete() {
+    synchronized (this) {
+      if (done) {
+        return;
+      }
+      done = true;
+    }
+    drain();
+  }
+
+  /** request to the upstream in batches, never more than the demand of the downstream . */
+  private void refill() {
+    final Flow.Subscription subscription;
+    final long n;
+    synchronized (this) {
+      final long requestable = Math.min(demand - queue.size(), batchSize) - outstanding;
+      if (upstream == null || cancelled || done || requestable < 1 || (outstanding > 0 && requestable < (batchSize + 1) / 2)) {
+        return;
+      }
+      subscription = upstream;
+      n = requestable;
+      outstanding += n;
+    }
+    subscription.request(n);
+  }
+
+  /**
+   * cancel the upstream, and signal the error to the downstream in place of the following elements .
+   *
+   * @param throwable the error
+   */
+  private void fail(final Throwable throwable) {
+    final Flow.Subscription subscription;
+    synchronized (this) {
+      if (cancelled) {
+        return;
+      }
+      queue.clear();
+      done = true;
+      error = throwable;
+      subscription = upstream;
+    }
+    if (subscription != null) {
+      subscription.cancel();
+    }
+    drain();
+  }
+
+  /**
+   * deliver the elements and the terminal signal to the downstream, one thread at a time .
+   *
+   * <p>
+   * the thread which signals while another thread draining leaves the signal to that thread, so that the downstream never receive signals concurrently,
+   * and never receive any signal until {@link Flow.Subscriber#onSubscribe(Flow.Subscription)} has returned .
+   * </p>
+   */
+  private void drain() {
+    synchronized (this) {
+      if (draining) {
+        return;
+      }
+      draining = true;
+    }
+    for (;;) {
+      final Flow.Subscriber<? super T> subscriber;
+      final T item;
+      final Throwable throwable;
+      synchronized (this) {
+        subscriber = downstream;
+        if (!subscribed || cancelled) {
+          draining = false;
+
+          return;
+        } else if (demand > 0 && !queue.isEmpty()) {
+          demand--;
+          item = queue.poll();
+          throwable = null;
+        } else if (done && queue.isEmpty()) {
+          cancelled = true;
+          item = null;
+          throwable = error;
+        } else {
+          draining = false;
+
+          return;
+        }
+      }
+      if (item != null) {
+        subscriber.onNext(item);
+        refill();
+      } else {
+        if (throwable != null) {
+          subscriber.onError(throwable);
+        } else {
+          subscriber.onComplete();
+        }
+
+        return;
+      }
+    }
+  }
+}
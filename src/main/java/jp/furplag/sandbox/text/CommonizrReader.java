@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Objects;
+
+/**
+ * a {@link Reader} which normalizes the text using {@link Commonizr} incrementally .
+ *
+ * <p>
+ * the state of rules ( e.g. a sequence of spaces, voiced sound marks ) carries across the boundaries of buffer,
+ * so that the result is the same as the {@link String} API of {@link Commonizr}, without loading whole of the text .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+public final class CommonizrReader extends Reader {
+
+  /** the default size of buffer . */
+  static final int defaultBufferSize = 0x2000;
+
+  /** the source . */
+  private final Reader in;
+
+  /** normalizer . */
+  private final Sweepr.Incremental chain;
+
+  /** the buffer to read from {@link #in} . */
+  private final char[] buffer;
+
+  /** a view of {@link #buffer} . */
+  private final CharBuffer bufferView;
+
+  /** the index of normalized text which to read next . */
+  private int position;
+
+  /** {@code true} if {@link #in} has reached the end of the stream . */
+  private boolean eof;
+
+  /** {@code true} if this stream has closed . */
+  private boolean closed;
+
+  /**
+   * @param in the source, may not be null
+   * @param flavor the kind of normalization
+   * @param bufferSize the size of buffer
+   */
+  CommonizrReader(final Reader in, final Sweepr.Flavor flavor, final int bufferSize) {
+    this(in, new Sweepr.Chain(flavor), bufferSize);
+  }
+
+  /**
+   * @param in the source, may not be null
+   * @param chain normalizer
+   * @param bufferSize the size of buffer
+   */
+  private CommonizrReader(final Reader in, final Sweepr.Incremental chain, final int bufferSize) {
+    super(Objects.requireNonNull(in));
+    this.in = in;
+    this.chain = chain;
+    buffer = new char[Math.max(1, bufferSize)];
+    bufferView = CharBuffer.wrap(buffer);
+  }
+
+  /**
+   * returns a {@link Reader} which reads the text using {@link Commonizr#denormalizeCjk(String)} .
+   *
+   * @param in the source, may not be null
+   * @return {@link CommonizrReader}
+   */
+  public static CommonizrReader denormalizeCjk(final Reader in) {
+    return new CommonizrReader(in, Sweepr.Flavor.DenormalizeCjk, defaultBufferSize);
+  }
+
+  /**
+   * returns a {@link Reader} which reads the text using {@link Commonizr#hiraganize(String)} .
+   *
+   * @param in the source, may not be null
+   * @return {@link CommonizrReader}
+   */
+  public static CommonizrReader hiraganize(final Reader in) {
+    return new CommonizrReader(in, Sweepr.Flavor.Hiraganize, defaultBufferSize);
+  }
+
+  /**
+   * returns a {@link Reader} which reads the text using {@link Commonizr#katakanize(String)} .
+   *
+   * @param in the source, may not be null
+   * @return {@link CommonizrReader}
+   */
+  public static CommonizrReader katakanize(final Reader in) {
+    return new CommonizrReader(in, Sweepr.Flavor.Katakanize, defaultBufferSize);
+  }
+
+  /**
+   * returns a {@link Reader} which reads the text using {@link Commonizr#normalizeCjk(String)} .
+   *
+   * @param in the source, may not be null
+   * @return {@link CommonizrReader}
+   */
+  public static CommonizrReader normalizeCjk(final Reader in) {
+    return new CommonizrReader(in, Sweepr.Flavor.NormalizeCjk, defaultBufferSize);
+  }
+
+  /**
+   * returns a {@link Reader} which reads the text using {@link Commonizr#optimize(String)} .
+   *
+   * @param in the source, may not be null
+   * @return {@link CommonizrReader}
+   */
+  public static CommonizrReader optimize(final Reader in) {
+    return new CommonizrReader(in, Sweepr.Flavor.Optimize, defaultBufferSize);
+  }
+
+  /**
+   * returns a {@link Reader} which reads the text using {@link Commonizr#trimMultiline(String)} .
+   *
+   * @param in the source, may not be null
+   * @return {@link CommonizrReader}
+   */
+  public static CommonizrReader trimMultiline(final Reader in) {
+    return trimMultiline(in, defaultBufferSize);
+  }
+
+  /**
+   * returns a {@link Reader} which reads the text using {@link Commonizr#trimMultiline(String)} .
+   *
+   * @param in the source, may not be null
+   * @param bufferSize the size of buffer
+   * @return {@link CommonizrReader}
+   */
+  static CommonizrReader trimMultiline(final Reader in, final int bufferSize) {
+    return new CommonizrReader(in, new Liner(bufferSize), bufferSize);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int read(final char[] cbuf, final int off, final int len) throws IOException {
+    synchronized (lock) {
+      ensureOpen();
+      Objects.checkFromIndexSize(off, len, cbuf.length);
+      if (len < 1) {
+        return 0;
+      }
+      final StringBuilder normalized = fill();
+      if (normalized == null) {
+        return -1;
+      }
+      final int length = Math.min(len, normalized.length() - position);
+      normalized.getChars(position, position + length, cbuf, off);
+      position += length;
+
+      return length;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean ready() throws IOException {
+    synchronized (lock) {
+      ensureOpen();
+
+      return position < chain.destination().length();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() throws IOException {
+    synchronized (lock) {
+      if (!closed) {
+        closed = true;
+        in.close();
+      }
+    }
+  }
+
+  /**
+   * throws {@link IOException} if this stream has closed .
+   *
+   * @throws IOException if this stream has closed
+   */
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  /**
+   * read the source until normalized text is available .
+   *
+   * @return normalized text, or null if reached the end of the stream
+   * @throws IOException if an I/O error occurs
+   */
+  private StringBuilder fill() throws IOException {
+    final StringBuilder normalized = chain.destination();
+    while (position >= normalized.length()) {
+      normalized.setLength(0);
+      position = 0;
+      if (eof) {
+        return null;
+      }
+      final int length = in.read(buffer, 0, buffer.length);
+      if (length < 0) {
+        eof = true;
+        chain.finish();
+      } else {
+        chain.accept(bufferView, 0, length);
+      }
+    }
+
+    return normalized;
+  }
+}
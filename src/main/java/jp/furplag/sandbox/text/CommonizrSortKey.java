@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * compact sort keys of the text, which sorts hiragana, katakana, half width and full width variants together .
+ *
+ * <p>
+ * the key is the text which normalized using {@link Commonizr#hiraganize(String)}, encoded into bytes by each characters as below .
+ * comparing keys using {@link Arrays#compareUnsigned(byte[], byte[])} gives the same order as comparing normalized {@link String} .
+ * </p>
+ * <table>
+ * <caption>encoding</caption>
+ * <tr><th>character</th><th>bytes</th><th>lead byte</th></tr>
+ * <tr><td>U+0000 - U+303F</td><td>2</td><td>0x00 - 0x30</td></tr>
+ * <tr><td>U+3040 - U+309F ( Hiragana )</td><td>1</td><td>0x31 - 0x90</td></tr>
+ * <tr><td>U+30A0 - U+30FF ( Katakana )</td><td>2</td><td>0x91</td></tr>
+ * <tr><td>U+3100 - U+4DFF</td><td>3</td><td>0x92</td></tr>
+ * <tr><td>U+4E00 - U+9FFF ( CJK Unified Ideographs )</td><td>2</td><td>0x93 - 0xE4</td></tr>
+ * <tr><td>U+A000 - U+FFFF ( include surrogates )</td><td>3</td><td>0xE5</td></tr>
+ * </table>
+ *
+ * @author furplag
+ *
+ */
+public abstract class CommonizrSortKey {
+
+  /** normalizers per thread . */
+  private static final ThreadLocal<Sweepr.Chain> chains = ThreadLocal.withInitial(() -> new Sweepr.Chain(Sweepr.Flavor.Hiraganize));
+
+  /**
+   * returns the sort key of the text .
+   *
+   * @param text the text, maybe null
+   * @return the sort key, or null if the text is null
+   */
+  public static byte[] of(final CharSequence text) {
+    if (Objects.isNull(text)) {
+      return null;
+    }
+    final StringBuilder normalized = chains.get().reset().accept(text, 0, text.length()).finish().destination();
+    int length = 0;
+    for (int i = 0; i < normalized.length(); i++) {
+      length += lengthOf(normalized.charAt(i));
+    }
+    final byte[] key = new byte[length];
+    for (int i = 0, position = 0; i < normalized.length(); i++) {
+      position = encode(normalized.charAt(i), key, position);
+    }
+
+    return key;
+  }
+
+  /**
+   * same as {@link Arrays#compareUnsigned(byte[], byte[])}, null first .
+   *
+   * @param key the sort key, maybe null
+   * @param another the sort key, maybe null
+   * @return the value 0 if the both are equal, a value less than 0 if the key is lexicographically less than another, and greater than 0 if not
+   */
+  public static int compare(final byte[] key, final byte[] another) {
+    return Arrays.compareUnsigned(key, another);
+  }
+
+  /**
+   * returns the normalized text which the sort key represents .
+   *
+   * @param key the sort key, maybe null
+   * @return normalized text, or null if the key is null
+   * @throws IllegalArgumentException if the key is not a sort key
+   */
+  public static String decode(final byte[] key) {
+    if (Objects.isNull(key)) {
+      return null;
+    }
+    final StringBuilder decoded = new StringBuilder(key.length);
+    for (int i = 0; i < key.length;) {
+      final int lead = key[i] & 0xFF;
+      final int length = lead <= 0x30 || lead == 0x91 || (lead >= 0x93 && lead <= 0xE4) ? 2 : lead <= 0x90 ? 1 : lead == 0x92 || lead == 0xE5 ? 3 : -1;
+      if (length < 0 || i + length > key.length) {
+        throw new IllegalArgumentException(String.format("not a sort key: illegal byte at %d .", i));
+      }
+      final int trail = length < 2 ? 0 : key[i + length - 1] & 0xFF;
+      final int c = length < 3 ? -1 : ((key[i + 1] & 0xFF) << 8) | trail;
+      if ((length == 3 && (lead == 0x92 ? c < 0x3100 || c >= 0x4E00 : c < 0xA000)) || (lead == 0x30 && trail >= 0x40) || (lead == 0x91 && trail >= 0x60)) {
+        throw new IllegalArgumentException(String.format("not a sort key: illegal byte at %d .", i + 1));
+      }
+      if (length == 1) {
+        decoded.append((char) (0x3040 + lead - 0x31));
+      } else if (length == 3) {
+        decoded.append((char) c);
+      } else if (lead <= 0x30) {
+        decoded.append((char) ((lead << 8) | trail));
+      } else if (lead == 0x91) {
+        decoded.append((char) (0x30A0 + trail));
+      } else {
+        decoded.append((char) (0x4E00 + ((lead - 0x93) << 8) + trail));
+      }
+      i += length;
+    }
+
+    return decoded.toString();
+  }
+
+  /**
+   * returns the length of bytes which the character encodes .
+   *
+   * @param c the character
+   * @return the length of bytes
+   */
+  private static int lengthOf(final char c) {
+    return c < 0x3040 ? 2 : c < 0x30A0 ? 1 : c < 0x3100 ? 2 : c < 0x4E00 ? 3 : c < 0xA000 ? 2 : 3;
+  }
+
+  /**
+   * encodes the character into the sort key .
+   *
+   * @param c the character
+   * @param key the sort key
+   * @param position the index of the key to write
+   * @return the index of the key to write next
+   */
+  private static int encode(final char c, final byte[] key, final int position) {/* @formatter:off */
+    int i = position;
+    if (c < 0x3040) { key[i++] = (byte) (c >> 8); key[i++] = (byte) c; }
+    else if (c < 0x30A0) { key[i++] = (byte) (0x31 + c - 0x3040); }
+    else if (c < 0x3100) { key[i++] = (byte) 0x91; key[i++] = (byte) (c - 0x30A0); }
+    else if (c < 0x4E00) { key[i++] = (byte) 0x92; key[i++] = (byte) (c >> 8); key[i++] = (byte) c; }
+    else if (c < 0xA000) { key[i++] = (byte) (0x93 + ((c - 0x4E00) >> 8)); key[i++] = (byte) c; }
+    else { key[i++] = (byte) 0xE5; key[i++] = (byte) (c >> 8); key[i++] = (byte) c; }
+
+    return i;
+  /* @formatter:on */}
+
+  /** the instance should NOT be constructed in standard programming. */
+  private CommonizrSortKey() {}
+}
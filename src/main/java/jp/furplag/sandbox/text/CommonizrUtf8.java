@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import lombok.NonNull;
+
+/**
+ * normalization of UTF-8 encoded bytes using {@link Commonizr}, without decoding whole of the text to {@link String} .
+ *
+ * <p>
+ * the bytes decode, normalize and encode per chunk, so that the result is the same as
+ * {@code Commonizr.normalizeCjk(new String(bytes, UTF_8)).getBytes(UTF_8)}, including the replacement of malformed input .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+public final class CommonizrUtf8 {
+
+  /** the default size of buffer . */
+  static final int defaultBufferSize = 0x2000;
+
+  /** the kind of normalization . */
+  private final Sweepr.Flavor flavor;
+
+  /** the size of buffer . */
+  private final int bufferSize;
+
+  /**
+   * the destination of encoded bytes .
+   *
+   * @author furplag
+   *
+   */
+  @FunctionalInterface
+  private interface Sink {
+
+    /**
+     * write the remaining of bytes .
+     *
+     * @param bytes the bytes to write
+     * @throws IOException if an I/O error occurs
+     */
+    void write(ByteBuffer bytes) throws IOException;
+  }
+
+  /**
+   * decode, normalize and encode per chunk .
+   *
+   * @author furplag
+   *
+   */
+  private final class Transcoder {
+
+    /** UTF-8 decoder . */
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /** UTF-8 encoder . */
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /** the buffer of decoded characters . */
+    private final CharBuffer chars = CharBuffer.allocate(bufferSize);
+
+    /** the buffer of encoded bytes . */
+    private final ByteBuffer bytes = ByteBuffer.allocate(bufferSize * 3);
+
+    /** normalizer . */
+    private final Sweepr.Chain chain = new Sweepr.Chain(flavor);
+
+    /** the destination . */
+    private final Sink sink;
+
+    /** the count of written bytes . */
+    private long written;
+
+    /**
+     * @param sink the destination
+     */
+    private Transcoder(final Sink sink) {
+      this.sink = sink;
+    }
+
+    /**
+     * normalize the remaining of bytes, leaves an incomplete sequence at the end of the source unless end of input .
+     *
+     * @param source UTF-8 encoded bytes
+     * @param endOfInput {@code true} if the source is the last
+     * @return this
+     * @throws IOException if an I/O error occurs
+     */
+    private Transcoder accept(final ByteBuffer source, final boolean endOfInput) throws IOException {
+      CoderResult result;
+      do {
+        result = decoder.decode(source, chars, endOfInput);
+        normalize();
+      } while (result.isOverflow());
+
+      return this;
+    }
+
+    /**
+     * flush all pending characters .
+     *
+     * @return the count of written bytes
+     * @throws IOException if an I/O error occurs
+     */
+    private long finish() throws IOException {
+      decoder.flush(chars);
+      normalize();
+      chain.finish();
+      encode(true);
+      encoder.flush(bytes);
+      write();
+
+      return written;
+    }
+
+    /**
+     * normalize decoded characters .
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void normalize() throws IOException {
+      chars.flip();
+      chain.accept(chars, 0, chars.remaining());
+      chars.clear();
+      encode(false);
+    }
+
+    /**
+     * encode normalized characters .
+     *
+     * @param endOfInput {@code true} if no more characters
+     * @throws IOException if an I/O error occurs
+     */
+    private void encode(final boolean endOfInput) throws IOException {
+      final StringBuilder normalized = chain.destination();
+      final CharBuffer source = CharBuffer.wrap(normalized);
+      CoderResult result;
+      do {
+        result = encoder.encode(source, bytes, endOfInput);
+        write();
+      } while (result.isOverflow());
+      normalized.delete(0, source.position());
+    }
+
+    /**
+     * write encoded bytes to the destination .
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void write() throws IOException {
+      bytes.flip();
+      written += bytes.remaining();
+      if (bytes.hasRemaining()) {
+        sink.write(bytes);
+      }
+      bytes.clear();
+    }
+  }
+
+  /**
+   * @param flavor the kind of normalization
+   * @param bufferSize the size of buffer, set two if this parameter is less than two
+   */
+  CommonizrUtf8(final Sweepr.Flavor flavor, final int bufferSize) {
+    this.flavor = Objects.requireNonNull(flavor);
+    this.bufferSize = Math.max(2, bufferSize);
+  }
+
+  /**
+   * returns a normalizer of UTF-8 encoded bytes using {@link Commonizr#denormalizeCjk(String)} .
+   *
+   * @return {@link CommonizrUtf8}
+   */
+  public static CommonizrUtf8 denormalizeCjk() {
+    return new CommonizrUtf8(Sweepr.Flavor.DenormalizeCjk, defaultBufferSize);
+  }
+
+  /**
+   * returns a normalizer of UTF-8 encoded bytes using {@link Commonizr#hiraganize(String)} .
+   *
+   * @return {@link CommonizrUtf8}
+   */
+  public static CommonizrUtf8 hiraganize() {
+    return new CommonizrUtf8(Sweepr.Flavor.Hiraganize, defaultBufferSize);
+  }
+
+  /**
+   * returns a normalizer of UTF-8 encoded bytes using {@link Commonizr#katakanize(String)} .
+   *
+   * @return {@link CommonizrUtf8}
+   */
+  public static CommonizrUtf8 katakanize() {
+    return new CommonizrUtf8(Sweepr.Flavor.Katakanize, defaultBufferSize);
+  }
+
+  /**
+   * returns a normalizer of UTF-8 encoded bytes using {@link Commonizr#normalizeCjk(String)} .
+   *
+   * @return {@link CommonizrUtf8}
+   */
+  public static CommonizrUtf8 normalizeCjk() {
+    return new CommonizrUtf8(Sweepr.Flavor.NormalizeCjk, defaultBufferSize);
+  }
+
+  /**
+   * returns a normalizer of UTF-8 encoded bytes using {@link Commonizr#optimize(String)} .
+   *
+   * @return {@link CommonizrUtf8}
+   */
+  public static CommonizrUtf8 optimize() {
+    return new CommonizrUtf8(Sweepr.Flavor.Optimize, defaultBufferSize);
+  }
+
+  /**
+   * returns normalized bytes .
+   *
+   * @param bytes UTF-8 encoded bytes, maybe null
+   * @return UTF-8 encoded normalized bytes, return null if the bytes is null
+   */
+  public byte[] apply(final byte[] bytes) {
+    return Objects.isNull(bytes) ? null : apply(ByteBuffer.wrap(bytes)).array();
+  }
+
+  /**
+   * returns normalized bytes, reads the remaining of the source .
+   *
+   * @param source UTF-8 encoded bytes, may not be null
+   * @return UTF-8 encoded normalized bytes, which the position is zero and the limit is the length of normalized bytes
+   */
+  public ByteBuffer apply(@NonNull final ByteBuffer source) {
+    final ByteArrayOutputStream destination = new ByteArrayOutputStream(source.remaining());
+    try {
+      new Transcoder((bytes) -> destination.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining())).accept(source, true).finish();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return ByteBuffer.wrap(destination.toByteArray());
+  }
+
+  /**
+   * normalize the remaining of the source ( e.g. {@link java.nio.MappedByteBuffer} ), and write to the channel .
+   *
+   * @param source UTF-8 encoded bytes, may not be null
+   * @param destination the channel to write UTF-8 encoded normalized bytes, may not be null
+   * @return the count of written bytes
+   * @throws IOException if an I/O error occurs
+   */
+  public long apply(@NonNull final ByteBuffer source, @NonNull final WritableByteChannel destination) throws IOException {
+    return new Transcoder((bytes) -> write(bytes, destination)).accept(source, true).finish();
+  }
+
+  /**
+   * normalize the file, and write to the other file using memory-mapped I/O .
+   *
+   * @param source the path of UTF-8 encoded file, may not be null
+   * @param destination the path of the file to write UTF-8 encoded normalized text, may not be null, overwrite if exists
+   * @return the count of written bytes
+   * @throws IOException if an I/O error occurs
+   */
+  public long apply(@NonNull final Path source, @NonNull final Path destination) throws IOException {
+    try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ); FileChannel out = FileChannel.open(destination, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      final Transcoder transcoder = new Transcoder((bytes) -> write(bytes, out));
+      final long size = in.size();
+      long position = 0;
+      do {
+        final long length = Math.min(size - position, Integer.MAX_VALUE);
+        final ByteBuffer segment = in.map(MapMode.READ_ONLY, position, length);
+        transcoder.accept(segment, position + length >= size);
+        position += segment.position();
+      } while (position < size);
+
+      return transcoder.finish();
+    }
+  }
+
+  /**
+   * write the remaining of bytes to the channel .
+   *
+   * @param bytes the bytes to write
+   * @param destination the channel
+   * @throws IOException if an I/O error occurs
+   */
+  private static void write(final ByteBuffer bytes, final WritableByteChannel destination) throws IOException {
+    while (bytes.hasRemaining()) {
+      destination.write(bytes);
+    }
+  }
+}
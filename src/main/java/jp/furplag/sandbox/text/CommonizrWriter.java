@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Objects;
+
+/**
+ * a {@link Writer} which normalizes the text using {@link Commonizr} incrementally .
+ *
+ * <p>
+ * the state of rules ( e.g. a sequence of spaces, voiced sound marks ) carries across each writing,
+ * so that the result is the same as the {@link String} API of {@link Commonizr} .
+ * the text which may change by the following text ( e.g. trailing spaces ) would not write until {@link #close()} .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+public final class CommonizrWriter extends Writer {
+
+  /** the destination . */
+  private final Writer out;
+
+  /** normalizer . */
+  private final Sweepr.Chain chain;
+
+  /** {@code true} if this stream has closed . */
+  private boolean closed;
+
+  /**
+   * @param out the destination, may not be null
+   * @param flavor the kind of normalization
+   */
+  CommonizrWriter(final Writer out, final Sweepr.Flavor flavor) {
+    super(Objects.requireNonNull(out));
+    this.out = out;
+    chain = new Sweepr.Chain(flavor);
+  }
+
+  /**
+   * returns a {@link Writer} which writes the text using {@link Commonizr#denormalizeCjk(String)} .
+   *
+   * @param out the destination, may not be null
+   * @return {@link CommonizrWriter}
+   */
+  public static CommonizrWriter denormalizeCjk(final Writer out) {
+    return new CommonizrWriter(out, Sweepr.Flavor.DenormalizeCjk);
+  }
+
+  /**
+   * returns a {@link Writer} which writes the text using {@link Commonizr#hiraganize(String)} .
+   *
+   * @param out the destination, may not be null
+   * @return {@link CommonizrWriter}
+   */
+  public static CommonizrWriter hiraganize(final Writer out) {
+    return new CommonizrWriter(out, Sweepr.Flavor.Hiraganize);
+  }
+
+  /**
+   * returns a {@link Writer} which writes the text using {@link Commonizr#katakanize(String)} .
+   *
+   * @param out the destination, may not be null
+   * @return {@link CommonizrWriter}
+   */
+  public static CommonizrWriter katakanize(final Writer out) {
+    return new CommonizrWriter(out, Sweepr.Flavor.Katakanize);
+  }
+
+  /**
+   * returns a {@link Writer} which writes the text using {@link Commonizr#normalizeCjk(String)} .
+   *
+   * @param out the destination, may not be null
+   * @return {@link CommonizrWriter}
+   */
+  public static CommonizrWriter normalizeCjk(final Writer out) {
+    return new CommonizrWriter(out, Sweepr.Flavor.NormalizeCjk);
+  }
+
+  /**
+   * returns a {@link Writer} which writes the text using {@link Commonizr#optimize(String)} .
+   *
+   * @param out the destination, may not be null
+   * @return {@link CommonizrWriter}
+   */
+  public static CommonizrWriter optimize(final Writer out) {
+    return new CommonizrWriter(out, Sweepr.Flavor.Optimize);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void write(final char[] cbuf, final int off, final int len) throws IOException {
+    synchronized (lock) {
+      ensureOpen();
+      Objects.checkFromIndexSize(off, len, cbuf.length);
+      chain.accept(CharBuffer.wrap(cbuf), off, off + len);
+      drain();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void write(final String str, final int off, final int len) throws IOException {
+    synchronized (lock) {
+      ensureOpen();
+      Objects.checkFromIndexSize(off, len, str.length());
+      chain.accept(str, off, off + len);
+      drain();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   * <b>Note: </b>the text which may change by the following text would not flush .
+   * </p>
+   */
+  @Override
+  public void flush() throws IOException {
+    synchronized (lock) {
+      ensureOpen();
+      out.flush();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() throws IOException {
+    synchronized (lock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        chain.finish();
+        drain();
+      } finally {
+        out.close();
+      }
+    }
+  }
+
+  /**
+   * write normalized text to the destination .
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  private void drain() throws IOException {
+    final StringBuilder normalized = chain.destination();
+    if (normalized.length() > 0) {
+      out.append(normalized);
+      normalized.setLength(0);
+    }
+  }
+
+  /**
+   * throws {@link IOException} if this stream has closed .
+   *
+   * @throws IOException if this stream has closed
+   */
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+}
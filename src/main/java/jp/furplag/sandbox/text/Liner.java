@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * single-pass , line oriented implementation of {@link Commonizr#trimMultiline(String)} .
+ *
+ * <p>
+ * walks the characters only once without any regular expression, and gives the same result as the rules below .
+ * </p>
+ * <ol>
+ * <li>{@link Commonizr#trim(String)} .</li>
+ * <li>{@link Regexr#lineFeedsSinglize} .</li>
+ * <li>{@link Regexr#trim} .</li>
+ * </ol>
+ * <p>
+ * white-spaces which follows the last visible character are pending until next visible character, so that the state carries across the boundaries of given text .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+final class Liner implements Sweepr.Incremental {
+
+  /** the name of each counters of {@link #rewrites} in {@link RegexrDiagnostics} . */
+  static final String[] rewriteNames = { "Liner.trim", "Liner.drop", "Liner.lineFeed" };
+
+  /** the index of {@link #rewrites} which counts the white-spaces removed in {@link Regexr#lineFeedsSinglize} . */
+  private static final int LINEFEED = 2;
+
+  /** the destination . */
+  private final StringBuilder destination;
+
+  /** the white-spaces which waiting for next visible character . */
+  private final StringBuilder pending = new StringBuilder();
+
+  /** the index of {@link #pending} where the current run of {@link Regexr#lineFeedsSinglize} starts . */
+  private int runStart;
+
+  /** {@code true} if the current run of {@link Regexr#lineFeedsSinglize} contains line feed . */
+  private boolean runHasLineFeed;
+
+  /** {@code true} if any visible character has emitted . */
+  private boolean started;
+
+  /** the count of characters which rewrote, trimmed ( {@link Sweepr#VISIBLE} ), removed ( {@link Sweepr#DROP} ) and singlized ( {@link #LINEFEED} ) . */
+  private final int[] rewrites = new int[rewriteNames.length];
+
+  /**
+   * @param capacity the initial capacity of destination
+   */
+  Liner(final int capacity) {
+    destination = new StringBuilder(capacity);
+  }
+
+  /**
+   * same as {@link Commonizr#trimMultiline(String)} .
+   *
+   * @param text the string, maybe null
+   * @return trimmed text, return null if the text is null, or the text itself if the text needs no change
+   */
+  static String trimMultiline(final String text) {
+    if (Objects.isNull(text)) {
+      return null;
+    }
+    final StringBuilder trimmed = new Liner(text.length()).accept(text, 0, text.length()).finish().destination();
+
+    return text.contentEquals(trimmed) ? text : trimmed.toString();
+  }
+
+  /**
+   * returns {@code true} if the character is the member of {@link Regexr#lineFeedsSinglize} .
+   *
+   * @param c the character
+   * @return {@code true} if the character is the member of {@link Regexr#lineFeedsSinglize}
+   */
+  private static boolean isMember(final char c) {
+    return c == ' ' || (c >= '\t' && c <= '\r');
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Liner accept(final CharSequence text, final int start, final int end) {
+    for (int i = start; i < end; i++) {
+      final char c = text.charAt(i);
+      final byte clazz = Sweepr.classes[c];
+      if (clazz == Sweepr.DROP || (!started && (clazz == Sweepr.SPACE || clazz == Sweepr.LINEFEED))) {
+        rewrites[clazz == Sweepr.DROP ? Sweepr.DROP : Sweepr.VISIBLE]++;
+        continue;
+      } else if (clazz != Sweepr.SPACE && clazz != Sweepr.LINEFEED) {
+        destination.append(pending).append(c);
+        pending.setLength(0);
+        runStart = 0;
+        runHasLineFeed = false;
+        started = true;
+      } else if (!isMember(c)) {
+        pending.append(c);
+        runStart = pending.length();
+        runHasLineFeed = false;
+      } else if (c == '\n') {
+        rewrites[LINEFEED] += pending.length() - runStart;
+        pending.setLength(runStart);
+        pending.append(c);
+        runHasLineFeed = true;
+      } else if (!runHasLineFeed) {
+        pending.append(c);
+      } else {
+        rewrites[LINEFEED]++;
+      }
+    }
+
+    return this;
+  }
+
+  /**
+   * discard trailing white-spaces .
+   *
+   * @return this
+   */
+  @Override
+  public Liner finish() {
+    rewrites[Sweepr.VISIBLE] += pending.length();
+    RegexrDiagnostics.rewrites(rewriteNames, rewrites);
+    Arrays.fill(rewrites, 0);
+    pending.setLength(0);
+    runStart = 0;
+    runHasLineFeed = false;
+
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public StringBuilder destination() {
+    return destination;
+  }
+
+  /**
+   * discard all pending characters and the destination .
+   *
+   * @return this
+   */
+  Liner reset() {
+    destination.setLength(0);
+    pending.setLength(0);
+    runStart = 0;
+    runHasLineFeed = false;
+    started = false;
+    Arrays.fill(rewrites, 0);
+
+    return this;
+  }
+}
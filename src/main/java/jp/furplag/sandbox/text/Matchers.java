@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * reuses {@link Matcher Matcher(s)} per thread, using {@link Matcher#reset(CharSequence)} .
+ *
+ * <p>
+ * each threads hold a few {@link Matcher Matcher(s)} of recently used {@link Pattern Pattern(s)} . A {@link Matcher} in use never be shared
+ * even if the operation calls another ( or the same ) rule recursively, so that the result is the same as {@code pattern.matcher(text)} .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+final class Matchers {
+
+  /** the name of system property to disable reusing, e.g.) {@code -Djp.furplag.sandbox.text.Regexr.matcherReuse=false} . */
+  static final String matcherReuseProperty = "jp.furplag.sandbox.text.Regexr.matcherReuse";
+
+  /** the count of {@link Matcher Matcher(s)} per thread . */
+  static final int poolSize = 8;
+
+  /** {@code true} if reuses {@link Matcher Matcher(s)} . */
+  private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty(matcherReuseProperty));
+
+  /** {@link Matcher Matcher(s)} of each threads . */
+  private static final ThreadLocal<Matchers> pools = ThreadLocal.withInitial(Matchers::new);
+
+  /** {@link Matcher Matcher(s)} . */
+  private final Matcher[] matchers = new Matcher[poolSize];
+
+  /** {@code true} if the {@link Matcher} is in use . */
+  private final boolean[] inUse = new boolean[poolSize];
+
+  /** the index of slot to replace next . */
+  private int next;
+
+  /** the instance should NOT be constructed in standard programming. */
+  private Matchers() {}
+
+  /**
+   * returns the result of the operation using a {@link Matcher} of the pattern and the text .
+   *
+   * @param <T> the type of argument
+   * @param <R> the type of result
+   * @param pattern {@link Pattern}, may not be null
+   * @param text the text, may not be null
+   * @param argument the argument of the operation
+   * @param operation the operation, which must not leak the {@link Matcher}
+   * @return the result of the operation
+   */
+  static <T, R> R apply(final Pattern pattern, final CharSequence text, final T argument, final BiFunction<Matcher, T, R> operation) {
+    if (!enabled) {
+      return operation.apply(pattern.matcher(text), argument);
+    }
+    final Matchers pool = pools.get();
+    final int slot = pool.acquire(pattern, text);
+    if (slot < 0) {
+      return operation.apply(pattern.matcher(text), argument);
+    }
+    try {
+      return operation.apply(pool.matchers[slot], argument);
+    } finally {
+      pool.matchers[slot].reset("");
+      pool.inUse[slot] = false;
+    }
+  }
+
+  /**
+   * returns {@code true} if reuses {@link Matcher Matcher(s)} .
+   *
+   * @return {@code true} if reuses {@link Matcher Matcher(s)}
+   */
+  static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * enables or disables reusing {@link Matcher Matcher(s)} .
+   *
+   * @param enabled {@code true} if reuses {@link Matcher Matcher(s)}
+   */
+  static void setEnabled(final boolean enabled) {
+    Matchers.enabled = enabled;
+  }
+
+  /**
+   * returns the index of the slot which holds the {@link Matcher} of the pattern reset with the text .
+   *
+   * @param pattern {@link Pattern}
+   * @param text the text
+   * @return the index of the slot, or negative if all of the slots are in use
+   */
+  private int acquire(final Pattern pattern, final CharSequence text) {
+    for (int i = 0; i < poolSize; i++) {
+      if (!inUse[i] && matchers[i] != null && matchers[i].pattern() == pattern) {
+        inUse[i] = true;
+        matchers[i].reset(text);
+
+        return i;
+      }
+    }
+    for (int i = 0; i < poolSize; i++) {
+      final int slot = (next + i) % poolSize;
+      if (!inUse[slot]) {
+        next = (slot + 1) % poolSize;
+        inUse[slot] = true;
+        matchers[slot] = pattern.matcher(text);
+
+        return slot;
+      }
+    }
+
+    return -1;
+  }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * multi-pattern prefilter of {@link Regexr Regexr(s)}, which finds the literals of rules in a single scan using Aho-Corasick automaton .
+ *
+ * <p>
+ * each rules has a literal ( the literal prefix of the regular expression, which every match must contain ) are need to evaluate
+ * only if the literal occurs in the text . The rules which has no literal are always need to evaluate .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+final class Prefilter implements Serializable {
+
+  /** the characters which must escape in the regular expression . */
+  private static final String metaCharacters = "\\^$.|?*+()[]{}";
+
+  /** {@code true} if the rule has no literal . */
+  private final boolean[] fallbacks;
+
+  /** the count of rules which has the literal . */
+  private final int literals;
+
+  /** the characters of transitions of each states, sorted . */
+  private final char[][] keys;
+
+  /** the destination of transitions of each states . */
+  private final int[][] targets;
+
+  /** the state to fallback of each states . */
+  private final int[] fails;
+
+  /** the index of rules which the literal found at each states . */
+  private final int[][] outputs;
+
+  /**
+   * @param regexrs {@link Regexr Regexr(s)}, in order
+   */
+  Prefilter(final List<Regexr> regexrs) {
+    fallbacks = new boolean[regexrs.size()];
+    final List<Map<Character, Integer>> trie = new ArrayList<>(List.of(new TreeMap<>()));
+    final List<List<Integer>> _outputs = new ArrayList<>(List.of(new ArrayList<>()));
+    int _literals = 0;
+    for (int i = 0; i < fallbacks.length; i++) {
+      final String literal = literalOf(regexrs.get(i));
+      fallbacks[i] = Objects.isNull(literal);
+      if (fallbacks[i]) {
+        continue;
+      }
+      _literals++;
+      int state = 0;
+      for (char c : literal.toCharArray()) {
+        Integer next = trie.get(state).get(c);
+        if (next == null) {
+          next = trie.size();
+          trie.get(state).put(c, next);
+          trie.add(new TreeMap<>());
+          _outputs.add(new ArrayList<>());
+        }
+        state = next;
+      }
+      _outputs.get(state).add(i);
+    }
+    literals = _literals;
+    keys = new char[trie.size()][];
+    targets = new int[trie.size()][];
+    for (int state = 0; state < trie.size(); state++) {
+      keys[state] = new char[trie.get(state).size()];
+      targets[state] = new int[trie.get(state).size()];
+      int i = 0;
+      for (Map.Entry<Character, Integer> transition : trie.get(state).entrySet()) {
+        keys[state][i] = transition.getKey();
+        targets[state][i++] = transition.getValue();
+      }
+    }
+    fails = new int[trie.size()];
+    final Queue<Integer> queue = new LinkedList<>();
+    for (int next : targets[0]) {
+      queue.add(next);
+    }
+    while (!queue.isEmpty()) {
+      final int state = queue.poll();
+      for (int i = 0; i < keys[state].length; i++) {
+        final int next = targets[state][i];
+        fails[next] = transit(fails[state], keys[state][i]);
+        _outputs.get(next).addAll(_outputs.get(fails[next]));
+        queue.add(next);
+      }
+    }
+    outputs = _outputs.stream().map((o) -> o.stream().distinct().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new);
+  }
+
+  /**
+   * returns the literal prefix of the rule, which every match must contain .
+   *
+   * @param regexr {@link Regexr}
+   * @return the literal, or null if the rule has no literal ( e.g. alternation, flags, or starts with the character class )
+   */
+  static String literalOf(final Regexr regexr) {
+    try {
+      return regexr.getPattern().flags() != 0 || !Regexr.class.equals(regexr.getClass().getMethod("matches", String.class).getDeclaringClass()) ? null : literalOf(regexr.getPattern().pattern());
+    } catch (NoSuchMethodException | SecurityException | NullPointerException e) {
+      return null;
+    }
+  }
+
+  /**
+   * returns the literal prefix of the regular expression, which every match must contain .
+   *
+   * @param regex the regular expression
+   * @return the literal, or null if the regular expression has no literal
+   */
+  static String literalOf(final String regex) {
+    if (Objects.toString(regex, "").isEmpty() || hasAlternation(regex)) {
+      return null;
+    }
+    final StringBuilder literal = new StringBuilder();
+    for (int i = regex.charAt(0) == '^' ? 1 : 0; i < regex.length();) {
+      final int[] unit = unitOf(regex, i);
+      if (unit == null) {
+        break;
+      }
+      final char quantifier = unit[1] < regex.length() ? regex.charAt(unit[1]) : 0;
+      if (quantifier == '?' || quantifier == '*' || quantifier == '{') {
+        break;
+      }
+      literal.appendCodePoint(unit[0]);
+      if (quantifier == '+') {
+        break;
+      }
+      i = unit[1];
+    }
+
+    return literal.length() < 1 ? null : literal.toString();
+  }
+
+  /**
+   * returns the literal code point at the index of the regular expression .
+   *
+   * @param regex the regular expression
+   * @param index the index of the regular expression
+   * @return the code point and the index of next, or null if the regular expression is not literal at the index
+   */
+  private static int[] unitOf(final String regex, final int index) {
+    final char c = regex.charAt(index);
+    if (c != '\\') {
+      return metaCharacters.indexOf(c) > -1 ? null : new int[] {regex.codePointAt(index), index + Character.charCount(regex.codePointAt(index))};
+    } else if (index + 1 >= regex.length()) {
+      return null;
+    }
+    final char escaped = regex.charAt(index + 1);
+    if (!Character.isLetterOrDigit(escaped) && !Character.isSurrogate(escaped)) {
+      return new int[] {escaped, index + 2};
+    }
+    switch (escaped) {/* @formatter:off */
+      case 't': return new int[] {'\t', index + 2};
+      case 'n': return new int[] {'\n', index + 2};
+      case 'r': return new int[] {'\r', index + 2};
+      case 'f': return new int[] {'\f', index + 2};
+      case 'a': return new int[] {'\u0007', index + 2};
+      case 'e': return new int[] {'\u001B', index + 2};
+      case 'u': return hexOf(regex, index + 2, index + 6, index + 6);
+      case 'x': final int end = regex.indexOf('}', index);
+        return index + 2 < regex.length() && regex.charAt(index + 2) == '{' ? (end < 0 ? null : hexOf(regex, index + 3, end, end + 1)) : hexOf(regex, index + 2, index + 4, index + 4);
+      default: return null;
+    /* @formatter:on */}
+  }
+
+  /**
+   * returns the code point represented by hexadecimal digits .
+   *
+   * @param regex the regular expression
+   * @param start the index of the first digit
+   * @param end the index after the last digit
+   * @param next the index of next
+   * @return the code point and the index of next, or null if not hexadecimal
+   */
+  private static int[] hexOf(final String regex, final int start, final int end, final int next) {
+    try {
+      final int codePoint = Integer.parseInt(regex.substring(start, end), 16);
+
+      return start < end && Character.isValidCodePoint(codePoint) ? new int[] {codePoint, next} : null;
+    } catch (IndexOutOfBoundsException | NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * returns {@code true} if the regular expression has alternation outside of groups, or the construct which this prefilter does not understand .
+   *
+   * @param regex the regular expression
+   * @return {@code true} if the regular expression has alternation outside of groups
+   */
+  private static boolean hasAlternation(final String regex) {
+    int depth = 0;
+    int classes = 0;
+    for (int i = 0; i < regex.length(); i++) {
+      final char c = regex.charAt(i);
+      if (c == '\\') {
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == 'Q') {
+          return true;
+        }
+        i++;
+      } else if (c == '[') {
+        classes++;
+      } else if (c == ']' && classes > 0) {
+        classes--;
+      } else if (classes > 0) {
+        continue;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (c == '|' && depth < 1) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * returns the index of rules which need to evaluate, in order .
+   *
+   * @param text the text, may not be null
+   * @return {@code true} at the index of rules which need to evaluate
+   */
+  boolean[] candidates(final CharSequence text) {
+    final boolean[] candidates = Arrays.copyOf(fallbacks, fallbacks.length);
+    int found = 0;
+    int state = 0;
+    for (int i = 0; i < text.length() && found < literals; i++) {
+      state = transit(state, text.charAt(i));
+      for (int rule : outputs[state]) {
+        if (!candidates[rule]) {
+          candidates[rule] = true;
+          found++;
+        }
+      }
+    }
+
+    return candidates;
+  }
+
+  /**
+   * returns the next state .
+   *
+   * @param state the current state
+   * @param c the character
+   * @return the next state
+   */
+  private int transit(final int state, final char c) {
+    for (int current = state;; current = fails[current]) {
+      final int i = Arrays.binarySearch(keys[current], c);
+      if (i > -1) {
+        return targets[current][i];
+      } else if (current == 0) {
+        return 0;
+      }
+    }
+  }
+}
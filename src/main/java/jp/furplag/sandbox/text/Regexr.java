@@ -19,16 +19,19 @@ import java.io.Serializable;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Set;
 import java.util.function.UnaryOperator;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import jp.furplag.sandbox.stream.Streamr;
 import jp.furplag.sandbox.trebuchet.Trebuchet;
 import lombok.EqualsAndHashCode;
@@ -53,10 +56,30 @@ public interface Regexr extends Serializable, Comparable<Regexr> {
   static final Regexr normalizeSpaces = new Regexr.Origin("[[\\p{javaWhitespace}\u00A0]&&[^\\n\u0020]]+", "\u0020", 10) {};
 
   /** replace a sequence of spaces with a single spaces . */
-  static final Regexr spacesSinglize = new Regexr.Recursive("[\\p{javaWhitespace}&&[^\\n]]{2,}", "\u0020", 100) {};
+  static final Regexr spacesSinglize = new Regexr.Collapse("[\\p{javaWhitespace}&&[^\\n]]{2,}", "\u0020", 100, 2) {
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isMember(final char c) {
+      return c != '\n' && CodePoints.isWhitespace(c);
+    }
+  };
 
   /** replace a sequence of line feeds with a single line feeds . */
-  static final Regexr lineFeedsSinglize = new Regexr.Recursive("\\s+\\n|\\n\\s+", "\n", 1_000) {};
+  static final Regexr lineFeedsSinglize = new Regexr.Collapse("\\s+\\n|\\n\\s+", "\n", 1_000, 1) {
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isMember(final char c) {
+      return c == '\u0020' || (c >= '\t' && c <= '\r');
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isRequired(final char c) {
+      return c == '\n';
+    }
+  };
 
   /** remove leading and trailing space . */
   static final Regexr trim = new Regexr.Origin("^[\\p{javaWhitespace}]+|[\\p{javaWhitespace}]+$", null, 10_000) {};
@@ -80,15 +103,7 @@ public interface Regexr extends Serializable, Comparable<Regexr> {
       , new Regexr.Origin("\u0020?[\u3099\u309B]", "\uFF9E", 2) {}
       , new Regexr.Origin("\u0020?[\u309A\u309C]", "\uFF9F", 3) {}
     );
-    private final UnaryOperator<String> _normalize = (t) -> {
-      final AtomicReference<String> result = new AtomicReference<>(t);
-      pattern.matcher(result.get()).results().forEach((r) -> {
-        final String _r = r.group();
-        result.set(result.get().replace(_r, Normalizer.normalize(_r, Form.NFKC)));
-      });
-
-      return result.get();
-    };
+    private final UnaryOperator<String> _normalize = (t) -> pattern.matcher(t).replaceAll((r) -> Matcher.quoteReplacement(Normalizer.normalize(r.group(), Form.NFKC)));
     private final UnaryOperator<String> _postNormalize = (t) -> Regexr.replaceAll(t
       , new Regexr.Origin("\u0020?([\u3099])", "\u309B", 1) {}
       , new Regexr.Origin("\u0020?([\u309A])", "\u309C", 2) {}
@@ -132,7 +147,28 @@ public interface Regexr extends Serializable, Comparable<Regexr> {
    * @return matched elements any of {@code regexrs} of the given string
    */
   static List<String> findAny(final String text, final Regexr... regexrs) {
-    return Streamr.stream(regexrs).sorted().flatMap((regexr) -> regexr.find(text).stream()).collect(Collectors.toList());
+    return findAnyResults(text, regexrs).map(MatchResult::group).collect(Collectors.toList());
+  }
+
+  /**
+   * returns the lazy stream of match results any of {@code regexrs} of the given string, in order of {@code regexrs} .
+   *
+   * @param text to search in, may be null
+   * @param regexrs {@link Regexr Regexr(s)}
+   * @return the stream of match results any of {@code regexrs}, which searches only if needed
+   * @see #findResults(String)
+   */
+  static Stream<MatchResult> findAnyResults(final String text, final Regexr... regexrs) {
+    return Streamr.stream(regexrs).sorted().flatMap((regexr) -> regexr.findResults(text));
+  }
+
+  /**
+   * returns {@code true} if the default methods reuse {@link Matcher Matcher(s)} per thread .
+   *
+   * @return {@code true} if the default methods reuse {@link Matcher Matcher(s)} per thread
+   */
+  static boolean isMatcherReuse() {
+    return Matchers.isEnabled();
   }
 
   /**
@@ -157,11 +193,24 @@ public interface Regexr extends Serializable, Comparable<Regexr> {
    */
   static String replaceAll(final String text, final Regexr... regexrs) {
     final String[] result = { text };
-    Streamr.stream(regexrs).sorted().forEach((t) -> result[0] = t.replaceAll(result[0]));
+    Streamr.stream(regexrs).sorted().forEach((t) -> result[0] = RegexrDiagnostics.replaceAll(t, result[0]));
 
     return result[0];
   }
 
+  /**
+   * enables or disables reusing {@link Matcher Matcher(s)} per thread in the default methods, enabled by default .
+   *
+   * <p>
+   * the default also configurable with system property {@code jp.furplag.sandbox.text.Regexr.matcherReuse} .
+   * </p>
+   *
+   * @param enabled {@code true} if the default methods reuse {@link Matcher Matcher(s)} per thread
+   */
+  static void setMatcherReuse(final boolean enabled) {
+    Matchers.setEnabled(enabled);
+  }
+
   /**
    * a simply object which replacing text using RegEx .
    *
@@ -226,6 +275,9 @@ public interface Regexr extends Serializable, Comparable<Regexr> {
   @ToString(callSuper = true)
   abstract class Recursive extends Regexr.Origin {
 
+    /** the limit of recursion which the text stops shrinking, to find out the rule which never converges . */
+    protected static final int recursionLimit = 1_024;
+
     /**
      * @param regex the regular expression
      * @param replacement the replacement string, set empty string if this parameter is null
@@ -245,18 +297,128 @@ public interface Regexr extends Serializable, Comparable<Regexr> {
 
     /**
      * {@inheritDoc}
-     * <p>recursive {@link Matcher#replaceAll(String)} .</p>
-     * <p><b>Note: </b>be careful to infinity loop .</p>
+     * <p>recursive {@link Matcher#replaceAll(String)}, until the text stops changing .</p>
+     * <p>
+     * passes which shrink the text shorter than ever are not limited, because those end in the length of the text at most .
+     * <b>Note: </b>throws {@link IllegalStateException} if the rule never converges,
+     * that is, the text returns to the state which already passed, or the text stops shrinking in {@link #recursionLimit} times in a row .
+     * </p>
      *
      */
     @Override
     public String replaceAll(final String text) {
-      final String[] result = { text };
-      while (!getReplacement().equals(result[0]) && matches(result[0])) {
-        result[0] = super.replaceAll(result[0]);
+      String result = text;
+      int passes = 0;
+      int shortest = Objects.isNull(text) ? 0 : text.length();
+      Set<String> states = null;
+      for (; !getReplacement().equals(result) && matches(result); passes++) {
+        final String replaced = super.replaceAll(result);
+        if (replaced.equals(result)) {
+          break;
+        } else if (replaced.length() < shortest) {
+          shortest = replaced.length();
+          states = null;
+        } else if (states == null) {
+          states = new HashSet<>(Collections.singleton(result));
+        }
+        if (states != null && (states.size() > recursionLimit || !states.add(replaced))) {
+          throw new IllegalStateException(String.format("the rule never converges: %s .", getRegex()));
+        }
+        result = replaced;
       }
+      RegexrDiagnostics.recurse(this, passes);
 
-      return result[0];
+      return result;
+    }
+  }
+
+  /**
+   * the {@link Recursive} rule which collapses a run of characters to the replacement, reaches to the fixed point in a single scan .
+   *
+   * <p>
+   * each maximal run of {@link #isMember(char) members} replaces with the replacement, if the run has {@link #isRequired(char) required} character
+   * and the length of the run is at least the minimum . The regular expression must represent the same rule, and the replacement must be a run of members
+   * which collapses to itself .
+   * </p>
+   *
+   * @author furplag
+   *
+   */
+  @EqualsAndHashCode(callSuper = true)
+  @ToString(callSuper = true)
+  abstract class Collapse extends Recursive {
+
+    /** the minimum length of the run to collapse . */
+    private final int minLength;
+
+    /**
+     * @param regex the regular expression
+     * @param replacement the replacement string, set empty string if this parameter is null
+     * @param order the order in replacing, meant zero if negative
+     * @param minLength the minimum length of the run to collapse
+     */
+    protected Collapse(String regex, String replacement, int order, int minLength) {
+      super(regex, replacement, order);
+      this.minLength = minLength;
+    }
+
+    /**
+     * returns {@code true} if the character is a member of the run .
+     *
+     * @param c the character
+     * @return {@code true} if the character is a member of the run
+     */
+    protected abstract boolean isMember(final char c);
+
+    /**
+     * returns {@code true} if the run which has the character is collapsible .
+     *
+     * @param c the character, a member of the run
+     * @return {@code true} if the run which has the character is collapsible
+     */
+    protected boolean isRequired(final char c) {
+      return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>collapses each runs in a single scan, returns the text itself if nothing to replace .</p>
+     *
+     */
+    @Override
+    public String replaceAll(final String text) {
+      if (Objects.toString(text, "").isEmpty()) {
+        return text;
+      }
+      final int length = text.length();
+      StringBuilder result = null;
+      for (int i = 0; i < length;) {
+        if (!isMember(text.charAt(i))) {
+          if (result != null) {
+            result.append(text.charAt(i));
+          }
+          i++;
+          continue;
+        }
+        int end = i;
+        boolean required = false;
+        while (end < length && isMember(text.charAt(end))) {
+          required |= isRequired(text.charAt(end++));
+        }
+        if (required && end - i >= minLength && !getReplacement().contentEquals(text.subSequence(i, end))) {
+          if (result == null) {
+            result = new StringBuilder(length).append(text, 0, i);
+          }
+          result.append(getReplacement());
+        } else if (result != null) {
+          result.append(text, i, end);
+        }
+        i = end;
+      }
+
+      RegexrDiagnostics.recurse(this, 1);
+
+      return result == null ? text : result.toString();
     }
   }
 
@@ -273,7 +435,18 @@ public interface Regexr extends Serializable, Comparable<Regexr> {
    * @return matched elements of the given string
    */
   default List<String> find(final String text) {
-    return getPattern().matcher(Objects.toString(text, "")).results().map(MatchResult::group).collect(Collectors.toList());
+    return Matchers.apply(getPattern(), Objects.toString(text, ""), null, (m, a) -> m.results().map(MatchResult::group).collect(Collectors.toList()));
+  }
+
+  /**
+   * returns the lazy stream of match results of the given string, which carry the offsets of each matches .
+   *
+   * @param text to search in, may be null
+   * @return the stream of match results, which searches only if needed
+   * @see Matcher#results()
+   */
+  default Stream<MatchResult> findResults(final String text) {
+    return getPattern().matcher(Objects.toString(text, "")).results();
   }
 
   /**
@@ -284,7 +457,7 @@ public interface Regexr extends Serializable, Comparable<Regexr> {
    *
    */
   default boolean matches(final String text) {
-    return Trebuchet.Predicates.orNot(text, getPattern(), (t, u) -> u.matcher(t).find());
+    return Trebuchet.Predicates.orNot(text, getPattern(), (t, u) -> Matchers.apply(u, t, null, (m, a) -> m.find()));
   }
 
   /**
@@ -294,7 +467,7 @@ public interface Regexr extends Serializable, Comparable<Regexr> {
    * @return the string constructed by replacing each matching subsequence by the replacement string
    */
   default String replaceAll(final String text) {
-    return Trebuchet.Functions.orElse(text, getPattern(), getReplacement(), (t, u, v) -> u.matcher(t).replaceAll(v), () -> text);
+    return Trebuchet.Functions.orElse(text, getPattern(), getReplacement(), (t, u, v) -> Matchers.apply(u, t, v, Matcher::replaceAll), () -> text);
   }
 
   /**
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jp.furplag.sandbox.stream.Streamr;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * an immutable pipeline of {@link Regexr Regexr(s)}, which resolves the order of rules only once .
+ *
+ * <p>
+ * same as {@link Regexr#replaceAll(String, Regexr...)}, {@link Regexr#anyMatch(String, Regexr...)} and {@link Regexr#findAny(String, Regexr...)},
+ * but the rules have sorted when building the chain . Adjacent rules which replace exactly one code point
+ * ( e.g. {@link Regexr#removeCtrls} and {@link Regexr#removeEmpties} ) are fused into one alternation, so that replaces in a single pass,
+ * unless the replacement of a former rule matches to a latter one .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+@EqualsAndHashCode
+@ToString
+public final class RegexrChain implements Serializable {
+
+  /** the pattern which represents exactly one code point . */
+  private static final Pattern singleCodePoint = Pattern.compile("\\\\x\\{[0-9A-Fa-f]+\\}|\\\\x[0-9A-Fa-f]{2}|\\\\u[0-9A-Fa-f]{4}|[^\\\\^$.|?*+()\\[\\]{}]");
+
+  /**
+   * the rules which fused into one alternation .
+   *
+   * @author furplag
+   *
+   */
+  @EqualsAndHashCode(callSuper = true)
+  @ToString(callSuper = true)
+  static final class Fused extends Regexr.Origin {
+
+    /** the rules which fused, in order . */
+    @Getter
+    private final List<Regexr> fused;
+
+    /** the replacement of each alternatives . */
+    private final String[] replacements;
+
+    /**
+     * @param regexrs {@link Regexr Regexr(s)} which replace exactly one code point
+     */
+    Fused(final List<Regexr> regexrs) {
+      super(regexrs.stream().map((regexr) -> String.format("(%s)", regexr.getRegex())).collect(Collectors.joining("|")), null, regexrs.get(0).getOrder());
+      fused = Collections.unmodifiableList(new ArrayList<>(regexrs));
+      replacements = regexrs.stream().map(Regexr::getReplacement).map(Matcher::quoteReplacement).toArray(String[]::new);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String replaceAll(final String text) {
+      return Objects.isNull(text) ? text : pattern.matcher(text).replaceAll((r) -> {
+        int group = 1;
+        while (r.group(group) == null) {
+          group++;
+        }
+
+        return replacements[group - 1];
+      });
+    }
+  }
+
+  /** the rules, in order . */
+  @Getter
+  private final List<Regexr> regexrs;
+
+  /** the rules to replace, in order . */
+  private final List<Regexr> stages;
+
+  /** the prefilter of {@link #anyMatch(String)} . */
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final Prefilter prefilter;
+
+  /**
+   * @param regexrs {@link Regexr Regexr(s)}
+   */
+  private RegexrChain(final Regexr... regexrs) {
+    this.regexrs = Collections.unmodifiableList(Streamr.stream(regexrs).sorted().collect(Collectors.toList()));
+    final List<Regexr> _stages = new ArrayList<>();
+    final List<Regexr> fusible = new ArrayList<>();
+    for (Regexr regexr : this.regexrs) {
+      if (isFusible(regexr)) {
+        if (fusible.stream().map(Regexr::getReplacement).anyMatch(regexr::matches)) {
+          fuse(fusible, _stages);
+        }
+        fusible.add(regexr);
+        continue;
+      }
+      fuse(fusible, _stages);
+      _stages.add(regexr);
+    }
+    fuse(fusible, _stages);
+    stages = Collections.unmodifiableList(_stages);
+    prefilter = new Prefilter(this.regexrs);
+  }
+
+  /**
+   * returns an immutable pipeline of {@link Regexr Regexr(s)} .
+   *
+   * @param regexrs {@link Regexr Regexr(s)}, null elements are ignored
+   * @return {@link RegexrChain}
+   */
+  public static RegexrChain of(final Regexr... regexrs) {
+    return new RegexrChain(regexrs);
+  }
+
+  /**
+   * add fused rules to stages .
+   *
+   * @param fusible the rules to fuse
+   * @param stages the rules to replace
+   */
+  private static void fuse(final List<Regexr> fusible, final List<Regexr> stages) {
+    if (fusible.size() > 1) {
+      stages.add(new Fused(fusible));
+    } else {
+      stages.addAll(fusible);
+    }
+    fusible.clear();
+  }
+
+  /**
+   * returns {@code true} if the rule is a plain {@link Regexr.Origin} which replaces exactly one code point to the literal .
+   *
+   * @param regexr {@link Regexr}
+   * @return {@code true} if the rule is able to fuse into an alternation
+   */
+  static boolean isFusible(final Regexr regexr) {
+    try {
+      return regexr instanceof Regexr.Origin && Regexr.class.equals(regexr.getClass().getMethod("replaceAll", String.class).getDeclaringClass()) && regexr.getPattern().flags() == 0 && isSingleCodePoint(regexr.getRegex()) && !regexr.getReplacement().matches(".*[\\\\$].*");
+    } catch (NoSuchMethodException | SecurityException | NullPointerException e) {
+      return false;
+    }
+  }
+
+  /**
+   * returns {@code true} if the regular expression matches exactly one code point, e.g.) a character class .
+   *
+   * @param regex the regular expression
+   * @return {@code true} if the regular expression matches exactly one code point
+   */
+  static boolean isSingleCodePoint(final String regex) {
+    if (Objects.toString(regex, "").isEmpty() || regex.contains("\\Q")) {
+      return false;
+    } else if (regex.charAt(0) != '[') {
+      return singleCodePoint.matcher(regex).matches();
+    }
+    int depth = 0;
+    for (int i = 0; i < regex.length(); i++) {
+      final char c = regex.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '[') {
+        depth++;
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+          i++;
+        }
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+          return false;
+        }
+      } else if (c == ']' && --depth < 1) {
+        return i == regex.length() - 1;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * returns {@code true} if any of the rules matches the text .
+   *
+   * @param text to search in, may be null
+   * @return {@code true} if, and only if, a subsequence of the input sequence matches any of the rules
+   */
+  public boolean anyMatch(final String text) {
+    return firstMatch(text).isPresent();
+  }
+
+  /**
+   * returns the first rule which matches the text, in order .
+   *
+   * <p>
+   * the literals of rules find in a single scan, and only the rules which the literal occurs ( or no literal ) evaluate .
+   * </p>
+   *
+   * @param text to search in, may be null
+   * @return the first rule which matches the text, or empty if no rule matches
+   */
+  public Optional<Regexr> firstMatch(final String text) {
+    if (Objects.isNull(text)) {
+      return Optional.empty();
+    }
+    final boolean[] candidates = prefilter.candidates(text);
+    for (int i = 0; i < candidates.length; i++) {
+      if (candidates[i] && regexrs.get(i).matches(text)) {
+        return Optional.of(regexrs.get(i));
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * returns matched elements any of the rules of the given string .
+   *
+   * @param text to search in, may be null
+   * @return matched elements any of the rules of the given string
+   */
+  public List<String> findAny(final String text) {
+    final List<String> result = new ArrayList<>();
+    for (Regexr regexr : regexrs) {
+      result.addAll(regexr.find(text));
+    }
+
+    return result;
+  }
+
+  /**
+   * returns the lazy stream of match results any of the rules of the given string, in order of the rules .
+   *
+   * @param text to search in, may be null
+   * @return the stream of match results any of the rules, which searches only if needed
+   * @see Regexr#findResults(String)
+   */
+  public Stream<MatchResult> findAnyResults(final String text) {
+    return regexrs.stream().flatMap((regexr) -> regexr.findResults(text));
+  }
+
+  /**
+   * replaces the text using each rules in order .
+   *
+   * <p>
+   * while {@link RegexrDiagnostics} enabled, each stages are recorded, and the fused rules are recorded as one rule .
+   * in attribution mode, replaces using each rules one by one without fusion .
+   * </p>
+   *
+   * @param text to search and replace in, may be null
+   * @return the string constructed by replacing each matching subsequence by the replacement string
+   */
+  public String replaceAll(final String text) {
+    String result = text;
+    for (Regexr regexr : RegexrDiagnostics.attributes() ? regexrs : stages) {
+      result = RegexrDiagnostics.replaceAll(regexr, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * returns the count of passes in {@link #replaceAll(String)} .
+   *
+   * @return the count of passes
+   */
+  int passes() {
+    return stages.size();
+  }
+}
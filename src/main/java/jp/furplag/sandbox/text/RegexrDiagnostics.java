@@ -0,0 +1,394 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * opt-in instrumentation of {@link Regexr} pipelines and {@link Commonizr}, disabled by default .
+ *
+ * <p>
+ * records the invocations, hits ( the result differs from the text ), changed characters, passes of {@link Regexr.Recursive} rules and cumulative nanoseconds
+ * of each rules in {@link Regexr#replaceAll(String, Regexr...)} and {@link RegexrChain#replaceAll(String)}, and of each methods of {@link Commonizr} .
+ * the counters are striped ( {@link LongAdder} ), and {@link #snapshot()} returns the copy at the moment .
+ * </p>
+ * <p>
+ * the records come from the code which runs in production : the methods of {@link Commonizr} are recorded also per the path which they took
+ * ( e.g. {@code Commonizr.optimize[latin1]} ), the fused stages of {@link RegexrChain} are recorded as one rule ( e.g. {@code removeCtrls+removeEmpties} ),
+ * and the single-pass implementations ( {@link Sweepr} and {@link Liner} ) record the count of characters which each classification rewrote ( e.g. {@code Sweepr.drop} ),
+ * without timing . the methods of {@link Commonizr} include the time of other methods which they call .
+ * </p>
+ * <p>
+ * attribution mode runs each rules one by one without fusion, and {@link Commonizr} runs the rules instead of the fast paths,
+ * so that each hits are recorded to the rule which changes the text, in exchange for the cost and the code path differ from production .
+ * </p>
+ *
+ * @author furplag
+ *
+ */
+public final class RegexrDiagnostics {
+
+  /** the name of system property to enable diagnostics, e.g.) {@code -Djp.furplag.sandbox.text.RegexrDiagnostics.enabled=true} . */
+  static final String enabledProperty = "jp.furplag.sandbox.text.RegexrDiagnostics.enabled";
+
+  /** {@code true} if records . */
+  private static volatile boolean enabled = Boolean.getBoolean(enabledProperty);
+
+  /** the name of system property to enable attribution mode, e.g.) {@code -Djp.furplag.sandbox.text.RegexrDiagnostics.attribution=true} . */
+  static final String attributionProperty = "jp.furplag.sandbox.text.RegexrDiagnostics.attribution";
+
+  /** {@code true} if runs the rules one by one instead of the fast paths, while enabled . */
+  private static volatile boolean attribution = Boolean.getBoolean(attributionProperty);
+
+  /** the counters of each rules ( {@link Regexr} ) or methods ( {@link String} ) . */
+  private static final Map<Object, Counters> counters = new ConcurrentHashMap<>();
+
+  /** the names of the rules which declared in {@link Regexr} . */
+  private static final Map<Regexr, String> names = Collections.unmodifiableMap(Arrays.stream(Regexr.class.getDeclaredFields())
+    .filter((field) -> Modifier.isStatic(field.getModifiers()) && Regexr.class.equals(field.getType()))
+    .collect(Collectors.toMap(RegexrDiagnostics::valueOf, Field::getName, (a, b) -> a, IdentityHashMap::new)));
+
+  /**
+   * the statistics of a rule or a method .
+   *
+   * @author furplag
+   *
+   */
+  @EqualsAndHashCode
+  @Getter
+  @ToString
+  public static final class Stats {
+
+    /** the count of invocations . */
+    private final long invocations;
+
+    /** the count of invocations which the result differs from the text . */
+    private final long hits;
+
+    /** the count of characters which removed or inserted . */
+    private final long charsChanged;
+
+    /** the count of passes of {@link Regexr.Recursive} rules . */
+    private final long passes;
+
+    /** cumulative nanoseconds . */
+    private final long nanos;
+
+    /**
+     * @param invocations the count of invocations
+     * @param hits the count of invocations which the result differs from the text
+     * @param charsChanged the count of characters which removed or inserted
+     * @param passes the count of passes of {@link Regexr.Recursive} rules
+     * @param nanos cumulative nanoseconds
+     */
+    Stats(final long invocations, final long hits, final long charsChanged, final long passes, final long nanos) {
+      this.invocations = invocations;
+      this.hits = hits;
+      this.charsChanged = charsChanged;
+      this.passes = passes;
+      this.nanos = nanos;
+    }
+
+    /**
+     * returns the sum of the statistics .
+     *
+     * @param another the statistics
+     * @return the sum
+     */
+    Stats plus(final Stats another) {
+      return new Stats(invocations + another.invocations, hits + another.hits, charsChanged + another.charsChanged, passes + another.passes, nanos + another.nanos);
+    }
+  }
+
+  /**
+   * striped counters of a rule or a method .
+   *
+   * @author furplag
+   *
+   */
+  private static final class Counters {
+
+    /** the count of invocations . */
+    private final LongAdder invocations = new LongAdder();
+
+    /** the count of invocations which the result differs from the text . */
+    private final LongAdder hits = new LongAdder();
+
+    /** the count of characters which removed or inserted . */
+    private final LongAdder charsChanged = new LongAdder();
+
+    /** the count of passes of {@link Regexr.Recursive} rules . */
+    private final LongAdder passes = new LongAdder();
+
+    /** cumulative nanoseconds . */
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * returns the statistics at the moment .
+     *
+     * @return {@link Stats}
+     */
+    private Stats snapshot() {
+      return new Stats(invocations.sum(), hits.sum(), charsChanged.sum(), passes.sum(), nanos.sum());
+    }
+  }
+
+  /**
+   * returns the value of the field .
+   *
+   * @param field the static field of {@link Regexr}
+   * @return the rule
+   */
+  private static Regexr valueOf(final Field field) {
+    try {
+      return (Regexr) field.get(null);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * returns {@code true} if records .
+   *
+   * @return {@code true} if records
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * enables or disables recording, disabled by default .
+   *
+   * <p>
+   * the default also configurable with system property {@code jp.furplag.sandbox.text.RegexrDiagnostics.enabled} .
+   * </p>
+   *
+   * @param enabled {@code true} if records
+   */
+  public static void setEnabled(final boolean enabled) {
+    RegexrDiagnostics.enabled = enabled;
+  }
+
+  /**
+   * returns {@code true} if attribution mode is on, which takes effect only while enabled .
+   *
+   * @return {@code true} if attribution mode is on
+   */
+  public static boolean isAttribution() {
+    return attribution;
+  }
+
+  /**
+   * turns attribution mode on or off, off by default .
+   *
+   * <p>
+   * while enabled in attribution mode, {@link RegexrChain} and {@link Commonizr} run each rules one by one instead of the fused stages and the fast paths,
+   * so that the hits are recorded to each rules . the default also configurable with system property {@code jp.furplag.sandbox.text.RegexrDiagnostics.attribution} .
+   * </p>
+   *
+   * @param attribution {@code true} if runs the rules one by one
+   */
+  public static void setAttribution(final boolean attribution) {
+    RegexrDiagnostics.attribution = attribution;
+  }
+
+  /**
+   * returns {@code true} if enabled in attribution mode .
+   *
+   * @return {@code true} if runs the rules one by one instead of the fast paths
+   */
+  static boolean attributes() {
+    return enabled && attribution;
+  }
+
+  /** discard all records . */
+  public static void reset() {
+    counters.clear();
+  }
+
+  /**
+   * returns the statistics of each rules and methods at the moment, sorted by name .
+   *
+   * <p>
+   * rules are named with the name of the field in {@link Regexr}, or the regular expression and the replacement .
+   * </p>
+   *
+   * @return the statistics, which never change
+   */
+  public static Map<String, Stats> snapshot() {
+    final Map<String, Stats> snapshot = new TreeMap<>();
+    counters.forEach((key, value) -> snapshot.merge(nameOf(key), value.snapshot(), Stats::plus));
+
+    return Collections.unmodifiableMap(snapshot);
+  }
+
+  /**
+   * returns the name of the rule or the method .
+   *
+   * @param key the rule or the method
+   * @return the name
+   */
+  static String nameOf(final Object key) {
+    if (key instanceof RegexrChain.Fused) {
+      return ((RegexrChain.Fused) key).getFused().stream().map(RegexrDiagnostics::nameOf).collect(Collectors.joining("+"));
+    } else if (!(key instanceof Regexr)) {
+      return Objects.toString(key);
+    }
+    final Regexr regexr = (Regexr) key;
+
+    return names.getOrDefault(regexr, String.format("%s -> \"%s\"", regexr.getRegex(), regexr.getReplacement()));
+  }
+
+  /**
+   * same as {@code regexr.replaceAll(text)}, and records if enabled .
+   *
+   * @param regexr {@link Regexr}, may not be null
+   * @param text the string, maybe null
+   * @return the result of {@link Regexr#replaceAll(String)}
+   */
+  static String replaceAll(final Regexr regexr, final String text) {
+    if (!enabled) {
+      return regexr.replaceAll(text);
+    }
+    final long started = System.nanoTime();
+
+    return record(regexr, text, started, regexr.replaceAll(text));
+  }
+
+  /**
+   * returns the time to start recording, or zero if disabled .
+   *
+   * @return {@link System#nanoTime()}, or zero if disabled
+   */
+  static long started() {
+    return enabled ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * records an invocation of the rule or the method, if started .
+   *
+   * @param key the rule or the method
+   * @param text the string
+   * @param started the result of {@link #started()}
+   * @param result the result of the invocation
+   * @return the result
+   */
+  static String record(final Object key, final String text, final long started, final String result) {
+    if (started == 0L) {
+      return result;
+    }
+    final long elapsed = System.nanoTime() - started;
+    final Counters counter = counters.computeIfAbsent(key, (k) -> new Counters());
+    counter.invocations.increment();
+    counter.nanos.add(elapsed);
+    if (!Objects.equals(text, result)) {
+      counter.hits.increment();
+      counter.charsChanged.add(charsChanged(text, result));
+    }
+
+    return result;
+  }
+
+  /**
+   * records an invocation of the method, and the path which the method took, if started .
+   *
+   * @param method the name of method
+   * @param path the name of the path which the method took
+   * @param text the string
+   * @param started the result of {@link #started()}
+   * @param result the result of the invocation
+   * @return the result
+   */
+  static String record(final String method, final String path, final String text, final long started, final String result) {
+    if (started == 0L) {
+      return result;
+    }
+    record(method + "[" + path + "]", text, started, result);
+
+    return record(method, text, started, result);
+  }
+
+  /**
+   * records the count of characters which each classifications of a single-pass implementation rewrote in an invocation, if enabled .
+   *
+   * @param names the name of each classifications
+   * @param rewrites the count of characters which each classifications rewrote, in order of the names
+   */
+  static void rewrites(final String[] names, final int[] rewrites) {
+    if (!enabled) {
+      return;
+    }
+    for (int i = 0; i < names.length; i++) {
+      final Counters counter = counters.computeIfAbsent(names[i], (k) -> new Counters());
+      counter.invocations.increment();
+      if (rewrites[i] > 0) {
+        counter.hits.increment();
+        counter.charsChanged.add(rewrites[i]);
+      }
+    }
+  }
+
+  /**
+   * records the passes of {@link Regexr.Recursive} rule, if enabled .
+   *
+   * @param regexr {@link Regexr}
+   * @param passes the count of passes
+   */
+  static void recurse(final Regexr regexr, final int passes) {
+    if (enabled && passes > 0) {
+      counters.computeIfAbsent(regexr, (k) -> new Counters()).passes.add(passes);
+    }
+  }
+
+  /**
+   * returns the count of characters which removed or inserted, except common prefix and suffix .
+   *
+   * @param text the string, maybe null
+   * @param result the result, maybe null
+   * @return the count of characters which removed or inserted
+   */
+  static long charsChanged(final String text, final String result) {
+    final String before = Objects.toString(text, "");
+    final String after = Objects.toString(result, "");
+    final int length = Math.min(before.length(), after.length());
+    int prefix = 0;
+    while (prefix < length && before.charAt(prefix) == after.charAt(prefix)) {
+      prefix++;
+    }
+    int suffix = 0;
+    while (suffix < length - prefix && before.charAt(before.length() - suffix - 1) == after.charAt(after.length() - suffix - 1)) {
+      suffix++;
+    }
+
+    return (before.length() - prefix - suffix) + (after.length() - prefix - suffix);
+  }
+
+  /** the instance should NOT be constructed in standard programming. */
+  private RegexrDiagnostics() {}
+}
@@ -0,0 +1,890 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import java.io.IOException;
+import java.lang.Character.UnicodeBlock;
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * single-pass , table-driven implementation of {@link Commonizr#normalizeCjk(String)} .
+ *
+ * <p>
+ * walks the code points only once, and gives the same result as the chain of {@link Regexr Regexr(s)} below .
+ * </p>
+ * <ol>
+ * <li>{@link Commonizr#optimize(String)} .</li>
+ * <li>{@link Regexr#normalizeCjk} .</li>
+ * <li>{@link Commonizr#optimize(String)} .</li>
+ * </ol>
+ *
+ * @author furplag
+ *
+ */
+final class Sweepr {
+
+  /** the code point which is visible, or out of interest . */
+  static final byte VISIBLE = 0;
+
+  /** the code point which removes in {@link Regexr#removeCtrls} and {@link Regexr#removeEmpties} . */
+  static final byte DROP = 1;
+
+  /** the white space ( except line feed ) which normalizes to space in {@link Regexr#normalizeSpaces} . */
+  static final byte SPACE = 2;
+
+  /** line feed . */
+  static final byte LINEFEED = 3;
+
+  /** the hyphens which replace to hyphen-minus ( U+2010 - U+2012 ) . */
+  static final byte HYPHEN = 4;
+
+  /** the (combining) voiced sound marks ( U+3099 - U+309C ) . */
+  static final byte MARK = 5;
+
+  /** the member of {@link Regexr#normalizeCjk} which normalizes using {@link #compatibles} . */
+  static final byte CJK = 6;
+
+  /** the member of {@link Regexr#normalizeCjk} which should normalize using {@link Normalizer} ( e.g. Hangul, combining character ) . */
+  static final byte CJK_COMPLEX = 7;
+
+  /** halfwidth katakana voiced sound mark . */
+  static final char halfwidthVoiced = 'ﾞ';
+
+  /** halfwidth katakana semi-voiced sound mark . */
+  static final char halfwidthSemiVoiced = 'ﾟ';
+
+  /** classification of each characters in BMP . */
+  static final byte[] classes = new byte[0x1_0000];
+
+  /** the bitset of {@link #DROP} characters in BMP, which {@link #indexOfDrop(CharSequence, int, int)} tests a block of characters at once . */
+  private static final long[] drops = new long[0x1_0000 >>> 6];
+
+  /** the result of {@link Form#NFKC} normalization of each characters ( U+3000 - U+30FF , U+FF00 - U+FFFF ), null if the character normalizes to itself . */
+  private static final String[] compatibles = new String[0x200];
+
+  /** the composition of kana ( U+3000 - U+30FF ) and combining voiced sound mark, or zero if not composable . */
+  private static final char[] voiceds = new char[0x100];
+
+  /** the composition of kana ( U+3000 - U+30FF ) and combining semi-voiced sound mark, or zero if not composable . */
+  private static final char[] semiVoiceds = new char[0x100];
+
+  static {
+    final Set<Integer> exclusions = Set.of(0xFF5E, 0xFF04, 0xFFE0, 0xFFE1, 0xFFE5, 0xFFE6);
+    for (int codePoint = 0; codePoint < classes.length; codePoint++) {
+      if ((Character.getType(codePoint) == Character.CONTROL && !(codePoint >= 0x0009 && codePoint <= 0x000D) && !(codePoint >= 0x001C && codePoint <= 0x001F)) || (codePoint >= 0x2000 && codePoint <= 0x200F) || (codePoint >= 0x202A && codePoint <= 0x202F) || (codePoint >= 0x2060 && codePoint <= 0x206F)) {
+        classes[codePoint] = DROP;
+      } else if (codePoint == '\n') {
+        classes[codePoint] = LINEFEED;
+      } else if (CodePoints.isWhitespace(codePoint) || codePoint == 0x00A0) {
+        classes[codePoint] = SPACE;
+      }
+    }
+    for (int codePoint = 0x2010; codePoint <= 0x2012; codePoint++) {
+      classes[codePoint] = HYPHEN;
+    }
+    for (int codePoint = 0x3099; codePoint <= 0x309C; codePoint++) {
+      classes[codePoint] = MARK;
+    }
+    for (int i = 0; i < compatibles.length; i++) {
+      final int codePoint = (i < 0x100 ? 0x3000 : 0xFF00) | (i & 0xFF);
+      if (classes[codePoint] != VISIBLE || codePoint > 0xFFEF || exclusions.contains(codePoint)) {
+        continue;
+      }
+      final String normalized = Normalizer.normalize(Character.toString(codePoint), Form.NFKC);
+      compatibles[i] = normalized.equals(Character.toString(codePoint)) ? null : normalized;
+      classes[codePoint] = isComplex(codePoint) || normalized.codePoints().anyMatch(Sweepr::isComplex) ? CJK_COMPLEX : CJK;
+    }
+    classes[halfwidthVoiced] = CJK;
+    classes[halfwidthSemiVoiced] = CJK;
+    for (int codePoint = 0; codePoint < classes.length; codePoint++) {
+      drops[codePoint >>> 6] |= classes[codePoint] == DROP ? 1L << codePoint : 0L;
+    }
+    for (int i = 0; i < voiceds.length; i++) {
+      voiceds[i] = compose(0x3000 | i, '゙');
+      semiVoiceds[i] = compose(0x3000 | i, '゚');
+    }
+  }
+
+  /**
+   * returns the result of canonical composition of the character and the combining mark .
+   *
+   * @param codePoint the character
+   * @param mark the combining mark
+   * @return the composed character, or zero if not composable
+   */
+  private static char compose(final int codePoint, final char mark) {
+    final String composed = Normalizer.normalize(Character.toString(codePoint) + mark, Form.NFC);
+
+    return composed.length() == 1 ? composed.charAt(0) : 0;
+  }
+
+  /**
+   * returns {@code true} if the character could not normalize independently .
+   *
+   * @param codePoint the character
+   * @return {@code true} if the character is combining, Hangul Jamo, or the member of white-spaces
+   */
+  private static boolean isComplex(final int codePoint) {
+    if (CodePoints.isMark(codePoint)) {
+      return true;
+    }
+    final UnicodeBlock unicodeBlock = CodePoints.blockOf(codePoint);
+
+    return UnicodeBlock.HANGUL_JAMO.equals(unicodeBlock) || UnicodeBlock.HANGUL_COMPATIBILITY_JAMO.equals(unicodeBlock) || UnicodeBlock.HANGUL_JAMO_EXTENDED_A.equals(unicodeBlock) || UnicodeBlock.HANGUL_JAMO_EXTENDED_B.equals(unicodeBlock) || (codePoint >= 0xFFA0 && codePoint <= 0xFFDC) || (codePoint < classes.length && classes[codePoint] > VISIBLE && classes[codePoint] < HYPHEN);
+  }
+
+  /**
+   * returns the classification of the code point .
+   *
+   * @param codePoint the code point
+   * @return the classification of the code point
+   */
+  static byte classOf(final int codePoint) {
+    return codePoint < classes.length ? classes[codePoint] : VISIBLE;
+  }
+
+  /**
+   * returns {@code true} if the text needs no change in the normalization, using only the classification of each characters .
+   *
+   * <p>
+   * the result {@code false} does not mean that the normalization changes the text, e.g.) combining characters, voiced sound marks .
+   * </p>
+   *
+   * @param text the string, maybe null
+   * @param cjk {@code true} if the normalization contains {@link Regexr#normalizeCjk}
+   * @return {@code true} if the text needs no change in the normalization
+   */
+  static boolean isNormalized(final CharSequence text, final boolean cjk) {
+    return Objects.isNull(text) || isNormalized(text, 0, text.length(), cjk);
+  }
+
+  /**
+   * returns {@code true} if the range of the text needs no change in the normalization, using only the classification of each characters .
+   *
+   * @param text the string, may not be null
+   * @param start the index of the text to start normalization
+   * @param end the index of the text to stop normalization
+   * @param cjk {@code true} if the normalization contains {@link Regexr#normalizeCjk}
+   * @return {@code true} if the range of the text needs no change in the normalization
+   * @see #isNormalized(CharSequence, boolean)
+   */
+  static boolean isNormalized(final CharSequence text, final int start, final int end, final boolean cjk) {
+    final int last = end - 1;
+    boolean space = false;
+    for (int i = start; i <= last; i++) {
+      final char c = text.charAt(i);
+      final byte clazz = classes[c];
+      switch (clazz) {/* @formatter:off */
+        case VISIBLE: space = false; break;
+        case SPACE: case LINEFEED: if ((clazz == SPACE && c != '\u0020') || space || i == start || i == last) return false; space = true; break;
+        case DROP: return false;
+        case CJK: if (cjk && compatibles[(c < 0xFF00 ? 0 : 0x100) | (c & 0xFF)] != null) return false; space = false; break;
+        default: if (cjk) return false; space = false; break;
+      /* @formatter:on */}
+    }
+
+    return true;
+  }
+
+  /**
+   * returns the index of the first character which removes in {@link Regexr#removeCtrls} and {@link Regexr#removeEmpties} .
+   *
+   * <p>
+   * those characters are rare in most text, so that tests a block of eight characters with one branch, and skips the block if clean .
+   * </p>
+   *
+   * @param text the string, may not be null
+   * @param start the index of the text to start searching
+   * @param end the index of the text to stop searching
+   * @return the index of the character, or -1 if not found
+   */
+  static int indexOfDrop(final CharSequence text, final int start, final int end) {
+    int i = start;
+    for (; i + 8 <= end; i += 8) {/* @formatter:off */
+      final char c0 = text.charAt(i), c1 = text.charAt(i + 1), c2 = text.charAt(i + 2), c3 = text.charAt(i + 3), c4 = text.charAt(i + 4), c5 = text.charAt(i + 5), c6 = text.charAt(i + 6), c7 = text.charAt(i + 7);
+      if ((((drops[c0 >>> 6] >>> c0) | (drops[c1 >>> 6] >>> c1) | (drops[c2 >>> 6] >>> c2) | (drops[c3 >>> 6] >>> c3) | (drops[c4 >>> 6] >>> c4) | (drops[c5 >>> 6] >>> c5) | (drops[c6 >>> 6] >>> c6) | (drops[c7 >>> 6] >>> c7)) & 1L) != 0L) break;
+    /* @formatter:on */}
+    for (; i < end; i++) {
+      if (classes[text.charAt(i)] == DROP) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * single-pass implementation of {@link Commonizr#optimize(String)} for the text which consists of Latin-1 characters .
+   *
+   * @param text the string, maybe null
+   * @return optimized text, the text itself if the text needs no change, or null if the text is null or contains the character out of Latin-1
+   */
+  static String optimizeLatin1(final String text) {
+    final int length = Objects.isNull(text) ? 0 : text.length();
+    final char[] chars = new char[length];
+    final int[] rewrites = new int[LINEFEED + 1];
+    int count = 0;
+    char pending = 0;
+    boolean started = false;
+    for (int i = 0; i < length; i++) {
+      final char c = text.charAt(i);
+      if (c > 0xFF) {
+        return null;
+      }
+      switch (classes[c]) {/* @formatter:off */
+        case DROP: rewrites[DROP]++; break;
+        case LINEFEED: rewriteSpace(rewrites, started, pending, c, LINEFEED); pending = '\n'; break;
+        case SPACE: rewriteSpace(rewrites, started, pending, c, SPACE); pending = pending == 0 ? '\u0020' : pending; break;
+        default:
+          if (started && pending != 0) chars[count++] = pending;
+          pending = 0;
+          started = true;
+          chars[count++] = c;
+          break;
+      /* @formatter:on */}
+    }
+    if (Objects.isNull(text)) {
+      return null;
+    }
+    rewrites[VISIBLE] += started && pending != 0 ? 1 : 0;
+    RegexrDiagnostics.rewrites(latin1Names, rewrites);
+
+    return count == length && text.contentEquals(new StringBuilder(count).append(chars, 0, count)) ? text : new String(chars, 0, count);
+  }
+
+  /**
+   * single-pass implementation of {@link Commonizr#trim(String)} for the text which consists of Latin-1 characters .
+   *
+   * @param text the string, maybe null
+   * @return trimmed text, the text itself if the text needs no change, or null if the text is null or contains the character out of Latin-1
+   */
+  static String trimLatin1(final String text) {
+    final int length = Objects.isNull(text) ? 0 : text.length();
+    final char[] chars = new char[length];
+    final int[] rewrites = new int[DROP + 1];
+    int count = 0;
+    int end = 0;
+    for (int i = 0; i < length; i++) {
+      final char c = text.charAt(i);
+      if (c > 0xFF) {
+        return null;
+      }
+      final byte clazz = classes[c];
+      if (clazz == DROP || (count < 1 && (clazz == SPACE || clazz == LINEFEED))) {
+        rewrites[clazz == DROP ? DROP : VISIBLE]++;
+        continue;
+      }
+      chars[count++] = c;
+      if (clazz != SPACE && clazz != LINEFEED) {
+        end = count;
+      }
+    }
+    if (Objects.isNull(text)) {
+      return null;
+    }
+    rewrites[VISIBLE] += count - end;
+    RegexrDiagnostics.rewrites(trimLatin1Names, rewrites);
+
+    return end == length ? text : new String(chars, 0, end);
+  }
+
+  /**
+   * single-pass implementation of {@link Commonizr#normalizeCjk(String)} .
+   *
+   * @param text the string, maybe null
+   * @return normalized text, return null if the text is null, or the text itself if the text needs no change
+   */
+  static String normalizeCjk(final String text) {
+    return isNormalized(text, true) ? text : new Sweepr(true, text.length()).accept(text).finish().toString();
+  }
+
+  /**
+   * the kind of normalization which {@link Chain} does .
+   *
+   * @author furplag
+   *
+   */
+  static enum Flavor {/* @formatter:off */
+    /** {@link Commonizr#optimize(String)} . */
+    Optimize(false, 1),
+    /** {@link Commonizr#normalizeCjk(String)} . */
+    NormalizeCjk(true, 1),
+    /** {@link Commonizr#denormalizeCjk(String)} . */
+    DenormalizeCjk(true, 1) {
+      @Override void translate(final int codePoint, final StringBuilder destination) {
+        destination.appendCodePoint(codePoint < Commonizr.denormalizations.length ? Commonizr.denormalizations[codePoint] : codePoint);
+      }
+    },
+    /** {@link Commonizr#hiraganize(String)} . */
+    Hiraganize(true, 2) {
+      @Override void translate(final int codePoint, final StringBuilder destination) {
+        final int translated = Commonizr.hiraganizr.translate(codePoint);
+        if (translated >= 'ヷ' && translated <= 'ヺ') {
+          destination.append("わゐゑを".charAt(translated - 'ヷ')).append('゛');
+        } else {
+          destination.appendCodePoint(translated);
+        }
+      }
+    },
+    /** {@link Commonizr#katakanize(String)} . */
+    Katakanize(true, 1) {
+      @Override void translate(final int codePoint, final StringBuilder destination) {
+        destination.appendCodePoint(Commonizr.katakanizr.translate(codePoint));
+      }
+    };
+  /* @formatter:on */
+
+    /** {@code true} if the normalization contains {@link Regexr#normalizeCjk} . */
+    private final boolean cjk;
+
+    /** the count of {@link Sweepr} to chain . */
+    private final int depth;
+
+    /**
+     * @param cjk {@code true} if the normalization contains {@link Regexr#normalizeCjk}
+     * @param depth the count of {@link Sweepr} to chain
+     */
+    Flavor(final boolean cjk, final int depth) {
+      this.cjk = cjk;
+      this.depth = depth;
+    }
+
+    /**
+     * convert each code points of normalized text, if needed .
+     *
+     * @param codePoint the code point
+     * @param destination the destination
+     */
+    void translate(final int codePoint, final StringBuilder destination) {
+      destination.appendCodePoint(codePoint);
+    }
+  }
+
+  /**
+   * the normalization which accepts the text piece by piece .
+   *
+   * @author furplag
+   *
+   */
+  static interface Incremental {
+
+    /**
+     * normalize each characters of the text .
+     *
+     * @param text the string, may not be null
+     * @param start the index of the text to start normalization
+     * @param end the index of the text to stop normalization
+     * @return this
+     */
+    Incremental accept(CharSequence text, int start, int end);
+
+    /**
+     * flush all pending characters .
+     *
+     * @return this
+     */
+    Incremental finish();
+
+    /**
+     * returns the normalized text, which never change by the text following .
+     *
+     * @return the destination
+     */
+    StringBuilder destination();
+  }
+
+  /**
+   * incremental normalization, which carries the state of rules across boundaries of given text .
+   *
+   * @author furplag
+   *
+   */
+  static final class Chain implements Incremental {
+
+    /** the kind of normalization . */
+    private final Flavor flavor;
+
+    /** normalizers . */
+    private final Sweepr[] sweeprs;
+
+    /** the destination, if the normalization needs to translate . */
+    private final StringBuilder translated = new StringBuilder();
+
+    /**
+     * @param flavor the kind of normalization
+     */
+    Chain(final Flavor flavor) {
+      this.flavor = Objects.requireNonNull(flavor);
+      sweeprs = new Sweepr[flavor.depth];
+      for (int i = 0; i < sweeprs.length; i++) {
+        sweeprs[i] = new Sweepr(flavor.cjk, 0);
+      }
+    }
+
+    /**
+     * normalize each code points of the text .
+     *
+     * @param text the string, may not be null
+     * @param start the index of the text to start normalization
+     * @param end the index of the text to stop normalization
+     * @return this
+     */
+    @Override
+    public Chain accept(final CharSequence text, final int start, final int end) {
+      sweeprs[0].accept(text, start, end);
+
+      return pass();
+    }
+
+    /**
+     * returns the result of the normalization of the text, reuses the buffers of this chain .
+     *
+     * @param text the string, maybe null
+     * @return normalized text, return null if the text is null, or the text itself if the text needs no change
+     */
+    String apply(final String text) {
+      if (Objects.isNull(text) || (Flavor.Optimize.equals(flavor) && isNormalized(text, false)) || (Flavor.NormalizeCjk.equals(flavor) && isNormalized(text, true))) {
+        return text;
+      }
+
+      return reset().accept(text, 0, text.length()).finish().destination().toString();
+    }
+
+    /**
+     * appends the result of the normalization of the range of the text to the destination, reuses the buffers of this chain .
+     *
+     * @param <A> the type of destination
+     * @param text the string, may not be null
+     * @param start the index of the text to start normalization
+     * @param end the index of the text to stop normalization
+     * @param destination the destination, may not be null
+     * @return the destination
+     * @throws IOException if an I/O error occurs
+     */
+    <A extends Appendable> A apply(final CharSequence text, final int start, final int end, final A destination) throws IOException {
+      if ((Flavor.Optimize.equals(flavor) && isNormalized(text, start, end, false)) || (Flavor.NormalizeCjk.equals(flavor) && isNormalized(text, start, end, true))) {
+        destination.append(text, start, end);
+      } else {
+        destination.append(reset().accept(text, start, end).finish().destination());
+      }
+
+      return destination;
+    }
+
+    /**
+     * discard all pending characters and the destination .
+     *
+     * @return this
+     */
+    Chain reset() {
+      for (Sweepr sweepr : sweeprs) {
+        sweepr.reset();
+      }
+      translated.setLength(0);
+
+      return this;
+    }
+
+    /**
+     * flush all pending characters .
+     *
+     * @return this
+     */
+    @Override
+    public Chain finish() {
+      for (int i = 0; i < sweeprs.length; i++) {
+        pass(i).finish();
+      }
+
+      return pass();
+    }
+
+    /**
+     * returns the normalized text, which never change by the text following .
+     *
+     * @return the destination
+     */
+    @Override
+    public StringBuilder destination() {
+      return Flavor.Optimize.equals(flavor) || Flavor.NormalizeCjk.equals(flavor) ? sweeprs[sweeprs.length - 1].destination : translated;
+    }
+
+    /**
+     * move normalized text to the next step .
+     *
+     * @return this
+     */
+    private Chain pass() {
+      pass(sweeprs.length);
+      if (destination() == translated) {
+        final StringBuilder normalized = sweeprs[sweeprs.length - 1].destination;
+        normalized.codePoints().forEach((codePoint) -> flavor.translate(codePoint, translated));
+        normalized.setLength(0);
+      }
+
+      return this;
+    }
+
+    /**
+     * move normalized text to the specified step .
+     *
+     * @param index the index of {@link #sweeprs}
+     * @return the normalizer, or null if the index is out of {@link #sweeprs}
+     */
+    private Sweepr pass(final int index) {
+      for (int i = 1; i < Math.min(index + 1, sweeprs.length); i++) {
+        final StringBuilder normalized = sweeprs[i - 1].destination;
+        sweeprs[i].accept(normalized, 0, normalized.length());
+        normalized.setLength(0);
+      }
+
+      return index < sweeprs.length ? sweeprs[index] : null;
+    }
+  }
+
+  /** the name of each counters of {@link #rewrites} in {@link RegexrDiagnostics}, indexed by the classification, and {@link #VISIBLE} stands for trimmed white-spaces . */
+  static final String[] rewriteNames = { "Sweepr.trim", "Sweepr.drop", "Sweepr.space", "Sweepr.lineFeed", "Sweepr.hyphen", "Sweepr.mark", "Sweepr.cjk", "Sweepr.cjkComplex" };
+
+  /** the name of each counters of the Latin-1 fast path, in order of {@link #rewriteNames} . */
+  private static final String[] latin1Names = Arrays.copyOf(rewriteNames, LINEFEED + 1);
+
+  /** the name of each counters of the Latin-1 fast path of trimming, in order of {@link #rewriteNames} . */
+  private static final String[] trimLatin1Names = Arrays.copyOf(rewriteNames, DROP + 1);
+
+  /** the size of {@link #run}, which should normalize before buffering more . */
+  static final int runThreshold = 0x1000;
+
+  /** {@code true} if contains {@link Regexr#normalizeCjk} . */
+  private final boolean cjk;
+
+  /** the destination . */
+  private final StringBuilder destination;
+
+  /** the sequence of {@link #CJK_COMPLEX}, which is waiting to normalize . */
+  private final StringBuilder run = new StringBuilder();
+
+  /** the high surrogate which waiting for the low surrogate, or zero . */
+  private char highSurrogate;
+
+  /** the white-space which waiting for next visible character in the first optimization, or zero . */
+  private char leading;
+
+  /** {@code true} if the first optimization has emitted any character . */
+  private boolean leadingStarted;
+
+  /** the code point which normalized but not yet emitted, for composition of voiced sound marks, or zero . */
+  private int held;
+
+  /** {@code true} if {@link #held} is the member of {@link Regexr#normalizeCjk} . */
+  private boolean heldInRun;
+
+  /** the white-space which waiting for next visible character in the last optimization, or zero . */
+  private char trailing;
+
+  /** {@code true} if the last optimization has emitted any character . */
+  private boolean trailingStarted;
+
+  /** the count of characters which each classifications rewrote, in order of {@link #rewriteNames} . */
+  private final int[] rewrites = new int[rewriteNames.length];
+
+  /**
+   * @param cjk {@code true} if contains {@link Regexr#normalizeCjk}
+   * @param capacity the initial capacity of destination
+   */
+  Sweepr(final boolean cjk, final int capacity) {
+    this.cjk = cjk;
+    destination = new StringBuilder(capacity);
+  }
+
+  /**
+   * normalize each code points of the text .
+   *
+   * @param text the string, may not be null
+   * @return this
+   */
+  Sweepr accept(final CharSequence text) {
+    return accept(text, 0, text.length());
+  }
+
+  /**
+   * normalize each code points of the text .
+   *
+   * @param text the string, may not be null
+   * @param start the index of the text to start normalization
+   * @param end the index of the text to stop normalization
+   * @return this
+   */
+  Sweepr accept(final CharSequence text, final int start, final int end) {
+    for (int i = start; i < end; i++) {
+      final char c = text.charAt(i);
+      if (highSurrogate != 0) {
+        final char high = highSurrogate;
+        highSurrogate = 0;
+        if (Character.isLowSurrogate(c)) {
+          optimize(Character.toCodePoint(high, c));
+          continue;
+        }
+        optimize(high);
+      }
+      if (Character.isHighSurrogate(c)) {
+        highSurrogate = c;
+      } else {
+        optimize(c);
+      }
+    }
+
+    return this;
+  }
+
+  /**
+   * flush all pending characters, and returns the result .
+   *
+   * @return the destination
+   */
+  StringBuilder finish() {
+    if (highSurrogate != 0) {
+      optimize(highSurrogate);
+      highSurrogate = 0;
+    }
+    flush();
+    release();
+    if ((leadingStarted && leading != 0) || trailing != 0) {
+      rewrites[VISIBLE]++;
+    }
+    RegexrDiagnostics.rewrites(rewriteNames, rewrites);
+    Arrays.fill(rewrites, 0);
+
+    return destination;
+  }
+
+  /**
+   * discard all pending characters and the destination .
+   *
+   * @return this
+   */
+  Sweepr reset() {
+    destination.setLength(0);
+    run.setLength(0);
+    highSurrogate = 0;
+    leading = 0;
+    leadingStarted = false;
+    held = 0;
+    heldInRun = false;
+    trailing = 0;
+    trailingStarted = false;
+    Arrays.fill(rewrites, 0);
+
+    return this;
+  }
+
+  /**
+   * the first optimization, same as {@link Commonizr#optimize(String)} .
+   *
+   * @param codePoint the code point
+   */
+  private void optimize(final int codePoint) {
+    final byte clazz = classOf(codePoint);
+    if (clazz == DROP) {
+      rewrites[DROP]++;
+
+      return;
+    } else if (clazz == LINEFEED) {
+      rewriteSpace(codePoint, clazz);
+      leading = '\n';
+    } else if (clazz == SPACE) {
+      rewriteSpace(codePoint, clazz);
+      leading = leading == 0 ? ' ' : leading;
+    } else if (!cjk) {
+      if (leadingStarted && leading != 0) {
+        destination.append(leading);
+      }
+      leading = 0;
+      leadingStarted = true;
+      destination.appendCodePoint(codePoint);
+    } else {
+      if (leadingStarted && leading != 0 && !(leading == ' ' && clazz == MARK)) {
+        normalize(leading, classOf(leading));
+      } else if (leadingStarted && leading != 0) {
+        rewrites[MARK]++;
+      }
+      leading = 0;
+      leadingStarted = true;
+      normalize(codePoint, clazz);
+    }
+  }
+
+  /**
+   * counts the white-space which the first optimization rewrites .
+   *
+   * @param codePoint the code point
+   * @param clazz the classification of the code point
+   */
+  private void rewriteSpace(final int codePoint, final byte clazz) {
+    rewriteSpace(rewrites, leadingStarted, leading, codePoint, clazz);
+  }
+
+  /**
+   * counts the white-space which {@link Commonizr#optimize(String)} rewrites .
+   *
+   * @param rewrites the count of characters which each classifications rewrote
+   * @param started {@code true} if any visible character has emitted
+   * @param pending the white-space which waiting for next visible character, or zero
+   * @param codePoint the code point
+   * @param clazz the classification of the code point
+   */
+  private static void rewriteSpace(final int[] rewrites, final boolean started, final int pending, final int codePoint, final byte clazz) {
+    if (!started) {
+      rewrites[VISIBLE]++;
+    } else if (pending != 0) {
+      rewrites[clazz == LINEFEED || pending == '\n' ? LINEFEED : SPACE]++;
+    } else if (codePoint != ' ' && codePoint != '\n') {
+      rewrites[SPACE]++;
+    }
+  }
+
+  /**
+   * same as {@link Regexr#normalizeCjk} .
+   *
+   * @param codePoint the code point
+   * @param clazz the classification of the code point
+   */
+  private void normalize(final int codePoint, final byte clazz) {
+    if (clazz == CJK_COMPLEX) {
+      if (isBoundary((char) codePoint)) {
+        flush();
+      }
+      if (run.length() < 1 && heldInRun) {
+        run.appendCodePoint(held);
+        held = 0;
+        heldInRun = false;
+      }
+      run.append((char) codePoint);
+    } else if (clazz == MARK || codePoint == halfwidthVoiced || codePoint == halfwidthSemiVoiced) {
+      final boolean voiced = codePoint == halfwidthVoiced || codePoint == 0x3099 || codePoint == 0x309B;
+      if (run.length() > 0) {
+        if (isBoundary(voiced ? halfwidthVoiced : halfwidthSemiVoiced)) {
+          flush();
+        }
+        run.append(voiced ? halfwidthVoiced : halfwidthSemiVoiced);
+      } else {
+        emit(voiced ? '゙' : '゚', true);
+      }
+    } else if (clazz == CJK) {
+      flush();
+      final String compatible = compatibles[(codePoint < 0xFF00 ? 0 : 0x100) | (codePoint & 0xFF)];
+      if (compatible == null) {
+        emit(codePoint, true);
+      } else {
+        rewrites[CJK]++;
+        for (int i = 0; i < compatible.length(); i++) {
+          emit(compatible.charAt(i), true);
+        }
+      }
+    } else {
+      flush();
+      rewrites[HYPHEN] += clazz == HYPHEN ? 1 : 0;
+      emit(clazz == HYPHEN ? '-' : codePoint, false);
+    }
+  }
+
+  /**
+   * returns {@code true} if the {@link #run} has reached to {@link #runThreshold}, and the character starts a new composition .
+   *
+   * <p>
+   * normalization of the run and the following one separately returns the same result as normalizing at once,
+   * if the boundary is not inside a sequence of combining marks ( which reorders canonically as a whole ), and the boundary of those never composes .
+   * the run contains only {@link #CJK_COMPLEX} and half width voiced sound marks, and the longest composition of those is Hangul syllable (L + V + T),
+   * so that the last two of the run and the character decide the boundary . the run never cuts while continuing combining marks .
+   * </p>
+   *
+   * @param c the character which append to the run
+   * @return {@code true} if the run should normalize before appending the character
+   */
+  private boolean isBoundary(final char c) {
+    if (run.length() < runThreshold) {
+      return false;
+    }
+    final String next = String.valueOf(c);
+    if (CodePoints.isMark(Normalizer.normalize(next, Form.NFKD).charAt(0))) {
+      return false;
+    }
+    final String last = run.substring(run.length() - 2);
+
+    return Normalizer.normalize(last + next, Form.NFKC).equals(Normalizer.normalize(last, Form.NFKC) + Normalizer.normalize(next, Form.NFKC));
+  }
+
+  /** normalize the sequence of {@link #CJK_COMPLEX} using {@link Normalizer} . */
+  private void flush() {
+    if (run.length() > 0) {
+      final String normalized = Normalizer.normalize(run, Form.NFKC);
+      rewrites[CJK_COMPLEX] += normalized.contentEquals(run) ? 0 : run.length();
+      normalized.codePoints().forEach((codePoint) -> emit(codePoint, false));
+      run.setLength(0);
+    }
+  }
+
+  /**
+   * composes voiced sound marks, or replace combining voiced sound mark to full width .
+   *
+   * @param codePoint the code point
+   * @param inRun {@code true} if the code point is the member of {@link Regexr#normalizeCjk}
+   */
+  private void emit(final int codePoint, final boolean inRun) {
+    if (codePoint == 0x3099 || codePoint == 0x309A) {
+      final char composed = inRun && heldInRun && held >= 0x3000 && held <= 0x30FF ? (codePoint == 0x3099 ? voiceds : semiVoiceds)[held & 0xFF] : 0;
+      if (composed != 0) {
+        rewrites[MARK]++;
+        held = composed;
+
+        return;
+      } else if (held != ' ') {
+        release();
+      }
+      rewrites[MARK]++;
+      held = codePoint + 2;
+      heldInRun = false;
+    } else {
+      release();
+      held = codePoint;
+      heldInRun = inRun;
+    }
+  }
+
+  /** the last optimization, same as {@link Commonizr#optimize(String)} . */
+  private void release() {
+    if (held == 0) {
+      return;
+    }
+    final byte clazz = classOf(held);
+    if (clazz == LINEFEED) {
+      trailing = '\n';
+    } else if (clazz == SPACE) {
+      trailing = trailing == 0 ? ' ' : trailing;
+    } else if (clazz != DROP) {
+      if (trailingStarted && trailing != 0) {
+        destination.append(trailing);
+      }
+      trailing = 0;
+      trailingStarted = true;
+      destination.appendCodePoint(held);
+    }
+    held = 0;
+  }
+}
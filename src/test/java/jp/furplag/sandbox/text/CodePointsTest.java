@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.Character.UnicodeBlock;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class CodePointsTest {
+
+  @Test
+  void test() {
+    assertThrows(IllegalArgumentException.class, () -> CodePoints.blockOf(-1));
+    assertThrows(IllegalArgumentException.class, () -> CodePoints.blockOf(Character.MAX_CODE_POINT + 1));
+    assertFalse(CodePoints.isWhitespace(-1));
+    assertFalse(CodePoints.isMark(-1));
+    assertEquals(UnicodeBlock.KATAKANA, CodePoints.blockOf('ア'));
+    assertEquals(UnicodeBlock.HALFWIDTH_AND_FULLWIDTH_FORMS, CodePoints.blockOf('ｱ'));
+    assertEquals(UnicodeBlock.EMOTICONS, CodePoints.blockOf(0x1F600));
+  }
+
+  @Test
+  void differentialTest() {
+    IntStream.rangeClosed(Character.MIN_CODE_POINT, Character.MAX_CODE_POINT).forEach((codePoint) -> {
+      assertEquals(UnicodeBlock.of(codePoint), CodePoints.blockOf(codePoint), Integer.toHexString(codePoint));
+      assertEquals(Character.isWhitespace(codePoint), CodePoints.isWhitespace(codePoint), Integer.toHexString(codePoint));
+      final int type = Character.getType(codePoint);
+      assertEquals(type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK, CodePoints.isMark(codePoint), Integer.toHexString(codePoint));
+    });
+  }
+}
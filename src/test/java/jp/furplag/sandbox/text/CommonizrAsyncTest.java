@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class CommonizrAsyncTest {
+
+  /** the asynchronous API of each {@link Sweepr.Flavor} . */
+  static final Map<Sweepr.Flavor, BiFunction<CommonizrAsync, String, CompletableFuture<String>>> asyncs = Map.of(/* @formatter:off */
+    Sweepr.Flavor.Optimize, CommonizrAsync::optimize
+  , Sweepr.Flavor.NormalizeCjk, CommonizrAsync::normalizeCjk
+  , Sweepr.Flavor.DenormalizeCjk, CommonizrAsync::denormalizeCjk
+  , Sweepr.Flavor.Hiraganize, CommonizrAsync::hiraganize
+  , Sweepr.Flavor.Katakanize, CommonizrAsync::katakanize
+  /* @formatter:on */);
+
+  @Test
+  void test() throws InterruptedException, ExecutionException {
+    assertThrows(NullPointerException.class, () -> CommonizrAsync.of(null, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> CommonizrAsync.of(Runnable::run, 0, 1));
+    try (CommonizrAsync async = CommonizrAsync.of(16)) {
+      assertNull(async.normalizeCjk(null).get());
+      assertEquals("Hello World.", async.normalizeCjk("Ｈｅｌｌｏ　Ｗｏｒｌｄ．").get());
+      assertEquals("わ゛ゐ゛ゔゑ゛を゛", async.hiraganize("ヷヸヴヹヺ").get());
+      assertTrue(async.optimize("the String.".repeat(2)).isCancelled());
+    }
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.shutdown();
+    final CompletableFuture<String> rejected = CommonizrAsync.of(executor, 1, Integer.MAX_VALUE).optimize("the String.");
+    assertTrue(rejected.isCompletedExceptionally());
+    assertEquals(RejectedExecutionException.class, assertThrows(ExecutionException.class, rejected::get).getCause().getClass());
+  }
+
+  @Test
+  void testCancel() {
+    final Deque<Runnable> tasks = new ArrayDeque<>();
+    final CommonizrAsync async = CommonizrAsync.of(tasks::add, 1, Integer.MAX_VALUE);
+    final CompletableFuture<String> cancelled = async.normalizeCjk("ｱ".repeat(CommonizrAsync.chunkSize * 4));
+    final CompletableFuture<String> result = async.normalizeCjk("ｱ".repeat(CommonizrAsync.chunkSize * 4));
+    assertTrue(cancelled.cancel(true));
+    while (!tasks.isEmpty()) {
+      tasks.poll().run();
+    }
+    assertTrue(cancelled.isCancelled());
+    assertEquals("ア".repeat(CommonizrAsync.chunkSize * 4), result.join());
+  }
+
+  @Test
+  void testCancelWaiting() {
+    final ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      final CountDownLatch latch = new CountDownLatch(1);
+      final AtomicInteger executed = new AtomicInteger();
+      final CommonizrAsync async = CommonizrAsync.of((runnable) -> pool.execute(executed.getAndIncrement() > 0 ? runnable : () -> {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        runnable.run();
+      }), 1, Integer.MAX_VALUE);
+      final CompletableFuture<String> running = async.normalizeCjk("ｱ");
+      final CompletableFuture<String> waiting = async.normalizeCjk("ｲ");
+      final CompletableFuture<String> following = async.normalizeCjk("ｳ");
+      assertEquals(1, executed.get());
+      assertTrue(waiting.cancel(true));
+      latch.countDown();
+      assertEquals("ア", running.join());
+      assertEquals("ウ", following.join());
+      assertTrue(waiting.isCancelled());
+      assertEquals(2, executed.get());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void differentialTest() {
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final CommonizrAsync async = CommonizrAsync.of(executor, 2, Integer.MAX_VALUE);
+      final Random random = new Random(20181010);
+      final List<String> texts = IntStream.range(0, 2_000).mapToObj((i) -> SweeprTest.randomText(random, random.nextInt(10) < 1 ? CommonizrAsync.chunkSize * 3 : 24)).collect(Collectors.toList());
+      asyncs.forEach((flavor, function) -> {
+        final List<CompletableFuture<String>> results = texts.stream().map((text) -> function.apply(async, text)).collect(Collectors.toList());
+        IntStream.range(0, texts.size()).forEach((i) -> assertEquals(CommonizrReaderTest.flavors.get(flavor).apply(texts.get(i)), results.get(i).join(), texts.get(i)));
+      });
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
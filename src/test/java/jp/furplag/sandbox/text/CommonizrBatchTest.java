@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class CommonizrBatchTest {
+
+  /** the {@link String} API of each {@link CommonizrBatch} . */
+  static final Map<Supplier<CommonizrBatch>, UnaryOperator<String>> batches = Map.of(/* @formatter:off */
+    CommonizrBatch::optimize, Commonizr::optimize
+  , CommonizrBatch::normalizeCjk, Commonizr::normalizeCjk
+  , CommonizrBatch::denormalizeCjk, Commonizr::denormalizeCjk
+  , CommonizrBatch::hiraganize, Commonizr::hiraganize
+  , CommonizrBatch::katakanize, Commonizr::katakanize
+  /* @formatter:on */);
+
+  @Test
+  void test() {
+    assertNull(CommonizrBatch.optimize().apply((String[]) null));
+    assertNull(CommonizrBatch.optimize().apply((List<String>) null));
+    assertNull(CommonizrBatch.optimize().apply((Stream<String>) null));
+    assertArrayEquals(new String[] {}, CommonizrBatch.optimize().apply());
+    assertEquals(Collections.emptyList(), CommonizrBatch.optimize().apply(Collections.emptyList()));
+    assertArrayEquals(new String[] {null, "", "a b", "Hello World."}, CommonizrBatch.normalizeCjk().apply(null, "", " a　 b ", "Ｈｅｌｌｏ　Ｗｏｒｌｄ．"));
+    assertEquals(Arrays.asList("ア アイ", "カ ガ"), CommonizrBatch.normalizeCjk().apply(Arrays.asList("ｱ ｱｲ", "ｶ ｶﾞ")));
+    assertEquals(Arrays.asList("ひらがな", "わ゛"), CommonizrBatch.hiraganize().apply(Stream.of("ヒラガナ", "ヷ")).collect(Collectors.toList()));
+
+    final String text = "already normalized";
+    assertSame(text, CommonizrBatch.optimize().apply(text)[0]);
+    assertSame(text, CommonizrBatch.normalizeCjk().apply(text)[0]);
+
+    assertFalse(CommonizrBatch.optimize().isParallel());
+    assertTrue(CommonizrBatch.optimize().parallel().isParallel());
+    assertFalse(CommonizrBatch.optimize().parallel().sequential().isParallel());
+    assertThrows(NullPointerException.class, () -> CommonizrBatch.optimize().parallel(null, 1));
+  }
+
+  @Test
+  void differentialTest() {
+    final Random random = new Random(20181010);
+    final String[] texts = IntStream.range(0, 5_000).mapToObj((i) -> i % 100 == 0 ? null : SweeprTest.randomText(random, 16)).toArray(String[]::new);
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      batches.forEach((batch, expect) -> {
+        final String[] expected = Arrays.stream(texts).map(expect).toArray(String[]::new);
+        assertArrayEquals(expected, batch.get().apply(texts));
+        assertArrayEquals(expected, batch.get().parallel().apply(texts));
+        assertArrayEquals(expected, batch.get().parallel(pool, 0).apply(texts));
+        assertArrayEquals(expected, batch.get().parallel(pool, 7).apply(texts));
+        assertEquals(Arrays.asList(expected), batch.get().parallel(pool, 100).apply(Arrays.asList(texts)));
+        assertEquals(Arrays.asList(expected), batch.get().apply(Arrays.stream(texts)).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(expected), batch.get().apply(Arrays.stream(texts).parallel()).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(expected), batch.get().parallel().apply(Arrays.stream(texts)).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(expected), batch.get().apply(Arrays.stream(texts)).parallel().collect(Collectors.toList()));
+        assertEquals(Arrays.asList(expected), batch.get().parallel(pool, 7).apply(Arrays.stream(texts).parallel()).collect(Collectors.toList()));
+      });
+    } finally {
+      pool.shutdown();
+    }
+    assertThrows(RejectedExecutionException.class, () -> CommonizrBatch.optimize().parallel(pool, 1).apply(Arrays.stream(texts)));
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class CommonizrCacheTest {
+
+  @Test
+  void test() {
+    assertThrows(NullPointerException.class, () -> CommonizrCache.of(null, 1));
+    assertThrows(NullPointerException.class, () -> CommonizrCache.of(Commonizr::optimize, 1, 1, null));
+    assertEquals(CommonizrCache.Policy.TinyLfu, CommonizrCache.of(Commonizr::optimize, 1).getPolicy());
+
+    final AtomicInteger calls = new AtomicInteger();
+    final UnaryOperator<String> function = (t) -> {
+      calls.incrementAndGet();
+
+      return Commonizr.normalizeCjk(t);
+    };
+    final CommonizrCache cache = CommonizrCache.of(function, 10, 8, CommonizrCache.Policy.Lru);
+    assertNull(cache.apply(null));
+    assertEquals("ア", cache.apply("ｱ"));
+    final String cached = cache.apply("ｱ");
+    assertEquals("ア", cached);
+    assertSame(cached, cache.apply("ｱ"));
+    assertEquals(2, calls.get());
+    assertEquals(2, cache.hits());
+    assertEquals(1, cache.misses());
+    assertEquals(1, cache.size());
+
+    assertEquals("ABCDEFGHI", cache.apply("ＡＢＣＤＥＦＧＨＩ"));
+    assertEquals("ABCDEFGHI", cache.apply("ＡＢＣＤＥＦＧＨＩ"));
+    assertEquals(1, cache.misses());
+    assertEquals(1, cache.size());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.hits());
+    assertEquals(0, cache.misses());
+  }
+
+  @Test
+  void testLru() {
+    final CommonizrCache cache = CommonizrCache.of(Commonizr::normalizeCjk, 100, 64, CommonizrCache.Policy.Lru);
+    IntStream.range(0, 10_000).forEach((i) -> {
+      assertEquals("hot", cache.apply("ｈｏｔ"));
+      assertEquals(Integer.toString(i), cache.apply(Integer.toString(i)));
+      assertTrue(cache.size() <= 100);
+    });
+    assertTrue(cache.evictions() > 9_000);
+    assertTrue(cache.hits() > 9_000);
+  }
+
+  @Test
+  void testTinyLfu() {
+    final List<String> frequents = new ArrayList<>();
+    IntStream.range(0, 50).forEach((i) -> frequents.add("ｆｒｅｑｕｅｎｔ" + i));
+    final long[] retained = new long[2];
+    final CommonizrCache.Policy[] policies = {CommonizrCache.Policy.TinyLfu, CommonizrCache.Policy.Lru};
+    for (int i = 0; i < policies.length; i++) {
+      final CommonizrCache cache = CommonizrCache.of(Commonizr::normalizeCjk, 100, 64, policies[i]);
+      IntStream.range(0, 5).forEach((j) -> frequents.forEach(cache::apply));
+      IntStream.range(0, 500).mapToObj(Integer::toString).forEach(cache::apply);
+      assertTrue(cache.size() <= 100);
+      final long hits = cache.hits();
+      frequents.forEach(cache::apply);
+      retained[i] = cache.hits() - hits;
+    }
+    assertEquals(frequents.size(), retained[0]);
+    assertTrue(retained[1] < retained[0]);
+  }
+
+  @Test
+  void testShift() {
+    final CommonizrCache cache = CommonizrCache.of(Commonizr::normalizeCjk, 200, 64, CommonizrCache.Policy.TinyLfu);
+    IntStream.range(0, 5).forEach((i) -> IntStream.range(0, 200).mapToObj((j) -> "ｈｏｔ" + j).forEach(cache::apply));
+    IntStream.range(0, 50).mapToObj((i) -> "ｂｕｒｓｔ" + i).forEach((t) -> {
+      cache.apply(t);
+      final long hits = cache.hits();
+      cache.apply(t);
+      assertEquals(hits + 1, cache.hits(), t);
+      assertTrue(cache.size() <= 200);
+    });
+
+    final List<String> shifted = new ArrayList<>();
+    IntStream.range(0, 50).forEach((i) -> shifted.add("ｓｈｉｆｔ" + i));
+    IntStream.range(0, 10).forEach((i) -> shifted.forEach(cache::apply));
+    final long hits = cache.hits();
+    shifted.forEach(cache::apply);
+    assertEquals(hits + shifted.size(), cache.hits());
+    assertTrue(cache.size() <= 200);
+  }
+
+  @Test
+  void testClear() {
+    final CommonizrCache cache = CommonizrCache.of(Commonizr::normalizeCjk, 1, 8, CommonizrCache.Policy.TinyLfu);
+    IntStream.range(0, 100).forEach((i) -> cache.apply("ａ"));
+    IntStream.range(0, 3).forEach((i) -> cache.apply("ｂ"));
+    assertEquals(99, cache.hits());
+    cache.clear();
+    cache.apply("ａ");
+    IntStream.range(0, 3).forEach((i) -> cache.apply("ｂ"));
+    final long hits = cache.hits();
+    assertEquals("b", cache.apply("ｂ"));
+    assertEquals(hits + 1, cache.hits());
+  }
+
+  @Test
+  void testConcurrency() throws Exception {
+    final CommonizrCache[] caches = {CommonizrCache.of(Commonizr::hiraganize, 64), CommonizrCache.of(Commonizr::hiraganize, 64, 64, CommonizrCache.Policy.Lru)};
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      for (CommonizrCache cache : caches) {
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+          final Random random = new Random(thread);
+          futures.add(executor.submit(() -> IntStream.range(0, 20_000).mapToObj((i) -> random.nextInt(4) == 0 ? SweeprTest.randomText(random, 8) : "ｶﾀｶﾅ" + random.nextInt(32)).forEach((t) -> assertEquals(Commonizr.hiraganize(t), cache.apply(t), t))));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+        assertTrue(cache.size() <= 64 + 8);
+        assertTrue(cache.hits() > 0);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
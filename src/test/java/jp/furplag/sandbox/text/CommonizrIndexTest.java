@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class CommonizrIndexTest {
+
+  @Test
+  void test() {
+    final CommonizrIndex index = new CommonizrIndex();
+    assertThrows(NullPointerException.class, () -> index.add(null));
+    assertEquals(0, index.size());
+    final int allen = index.add("ｱﾚﾝ･ｷﾞﾝｽﾞﾊﾞｰｸﾞ");
+    final int ginsberg = index.add("ぎんずばーぐ");
+    final int gin = index.add("ギン");
+    final int empty = index.add(" ");
+    assertEquals(4, index.size());
+    assertEquals("ｱﾚﾝ･ｷﾞﾝｽﾞﾊﾞｰｸﾞ", index.get(allen));
+    assertNull(index.get(-1));
+    assertNull(index.get(100));
+
+    assertArrayEquals(new int[] { gin, ginsberg, allen }, index.search("ｷﾞﾝ", 10));
+    assertArrayEquals(new int[] { gin, ginsberg }, index.search("ｷﾞﾝ", 2));
+    assertArrayEquals(new int[] { gin, ginsberg }, index.prefix("ぎん", 10));
+    assertArrayEquals(new int[] { ginsberg, allen }, index.search("バーグ", 10));
+    assertArrayEquals(new int[] { allen }, index.search("・", 10));
+    assertArrayEquals(new int[0], index.search("ぎんが", 10));
+    assertArrayEquals(new int[0], index.search("", 10));
+    assertArrayEquals(new int[0], index.search(null, 10));
+    assertArrayEquals(new int[0], index.search("ぎん", 0));
+
+    assertTrue(index.remove(ginsberg));
+    assertFalse(index.remove(ginsberg));
+    assertFalse(index.remove(-1));
+    assertTrue(index.remove(empty));
+    assertEquals(2, index.size());
+    assertNull(index.get(ginsberg));
+    assertArrayEquals(new int[] { gin, allen }, index.search("ぎん", 10));
+    assertArrayEquals(new int[] { allen }, index.search("ばーぐ", 10));
+    assertTrue(index.remove(allen));
+    assertArrayEquals(new int[0], index.search("ばーぐ", 10));
+    assertEquals(index.size(), index.add("ヷ") - 3);
+  }
+
+  @Test
+  void differentialTest() {
+    final Random random = new Random(20181010);
+    final String[] texts = IntStream.range(0, 5_000).mapToObj((i) -> SweeprTest.randomText(random, 6)).toArray(String[]::new);
+    final CommonizrIndex index = new CommonizrIndex();
+    IntStream.range(0, texts.length).forEach((i) -> assertEquals(i, index.add(texts[i])));
+    IntStream.range(0, texts.length).filter((i) -> random.nextInt(4) < 1).forEach((i) -> assertTrue(index.remove(i)));
+    final Comparator<Integer> rank = Comparator.<Integer>comparingInt((i) -> Commonizr.hiraganize(texts[i]).length()).thenComparingInt((i) -> i);
+    for (int i = 0; i < 1_000; i++) {
+      final String text = texts[random.nextInt(texts.length)];
+      final int start = random.nextInt(text.length() + 1);
+      final String query = Commonizr.hiraganize(text.substring(start, start + random.nextInt(text.length() - start + 1)));
+      final int[] expect = IntStream.range(0, texts.length).filter((id) -> index.get(id) != null).boxed().filter((id) -> !query.isEmpty() && Commonizr.hiraganize(texts[id]).contains(query))
+        .sorted(Comparator.<Integer>comparingInt((id) -> Commonizr.hiraganize(texts[id]).equals(query) ? 0 : Commonizr.hiraganize(texts[id]).startsWith(query) ? 1 : 2).thenComparing(rank)).mapToInt(Integer::intValue).toArray();
+      assertArrayEquals(expect, index.search(query, Integer.MAX_VALUE), query);
+      assertArrayEquals(Arrays.copyOf(expect, Math.min(3, expect.length)), index.search(query, 3), query);
+      assertArrayEquals(IntStream.of(expect).filter((id) -> Commonizr.hiraganize(texts[id]).startsWith(query)).toArray(), index.prefix(query, Integer.MAX_VALUE), query);
+    }
+  }
+
+  @Test
+  void testChurn() {
+    final CommonizrIndex index = new CommonizrIndex();
+    final Deque<Integer> living = new ArrayDeque<>();
+    for (int i = 0; i < 100_000; i++) {
+      living.add(index.add("ｶﾀｶﾅ" + (i % 100)));
+      if (living.size() > 100) {
+        final int id = living.poll();
+        assertTrue(index.remove(id));
+        assertNull(index.get(id));
+      }
+      assertTrue(index.slots() <= index.size() * 2 + 1);
+    }
+    assertEquals(100, index.size());
+    assertEquals("ｶﾀｶﾅ99", index.get(living.peekLast()));
+    assertArrayEquals(new int[] { living.peekLast() }, index.search("かたかな99", 10));
+    assertArrayEquals(living.stream().sorted().limit(10).mapToInt(Integer::intValue).toArray(), index.prefix("かたかな", 10));
+    while (!living.isEmpty()) {
+      assertTrue(index.remove(living.poll()));
+    }
+    assertEquals(0, index.slots());
+    assertArrayEquals(new int[0], index.search("かた", 10));
+  }
+}
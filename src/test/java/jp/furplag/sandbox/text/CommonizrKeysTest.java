@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class CommonizrKeysTest {
+
+  @Test
+  void test() {
+    assertEquals(0, CommonizrKeys.hashCode(null));
+    assertTrue(CommonizrKeys.equals(null, null));
+    assertFalse(CommonizrKeys.equals(null, ""));
+    assertFalse(CommonizrKeys.equals("", null));
+    assertEquals(0, CommonizrKeys.compare(null, null));
+    assertTrue(CommonizrKeys.compare(null, "") < 0);
+    assertTrue(CommonizrKeys.compare("", null) > 0);
+    assertTrue(CommonizrKeys.equals("Ｈｅｌｌｏ　Ｗｏｒｌｄ．", "Hello World."));
+    assertTrue(CommonizrKeys.equals(new StringBuilder("ｱﾚﾝ･ｷﾞﾝｽﾞﾊﾞｰｸﾞ"), "アレン・ギンズバーグ"));
+    assertFalse(CommonizrKeys.equals("ｱﾚﾝ", "あれん"));
+    assertEquals("Hello World.".hashCode(), CommonizrKeys.hashCode("Ｈｅｌｌｏ　Ｗｏｒｌｄ．"));
+    assertEquals(0, CommonizrKeys.comparator().compare("ｶﾞ", "ガ"));
+
+    final Map<CommonizrKeys.Key, Integer> map = new HashMap<>();
+    map.merge(CommonizrKeys.of("  ｱﾚﾝ･ｷﾞﾝｽﾞﾊﾞｰｸﾞ "), 1, Integer::sum);
+    map.merge(CommonizrKeys.of("アレン・ギンズバーグ"), 1, Integer::sum);
+    map.merge(CommonizrKeys.of(null), 1, Integer::sum);
+    map.merge(CommonizrKeys.of(null), 1, Integer::sum);
+    assertEquals(Map.of(CommonizrKeys.of("アレン・ギンズバーグ"), 2, CommonizrKeys.of(null), 2), map);
+    assertEquals("  ｱﾚﾝ･ｷﾞﾝｽﾞﾊﾞｰｸﾞ ", CommonizrKeys.of("  ｱﾚﾝ･ｷﾞﾝｽﾞﾊﾞｰｸﾞ ").getText());
+    assertEquals(0, CommonizrKeys.of("ｶﾞ").compareTo(CommonizrKeys.of("ガ")));
+    assertNotEquals(CommonizrKeys.of("ｶﾞ"), "ガ");
+  }
+
+  @Test
+  void differentialTest() {
+    final Random random = new Random(20181010);
+    final String[] texts = IntStream.range(0, 3_000).mapToObj((i) -> random.nextInt(10) < 1 ? null : SweeprTest.randomText(random, 8)).toArray(String[]::new);
+    for (int i = 0; i < texts.length; i++) {
+      final String text = texts[i];
+      final String another = texts[random.nextInt(texts.length)];
+      final String normalized = Commonizr.normalizeCjk(text);
+      final String normalizedAnother = Commonizr.normalizeCjk(another);
+      assertEquals(Objects.hashCode(normalized), CommonizrKeys.hashCode(text), text);
+      assertEquals(Objects.equals(normalized, normalizedAnother), CommonizrKeys.equals(text, another), text + " / " + another);
+      assertEquals(Objects.equals(normalized, normalized), CommonizrKeys.equals(text, normalized), text);
+      assertEquals(Integer.signum(Comparator.nullsFirst(Comparator.<String>naturalOrder()).compare(normalized, normalizedAnother)), Integer.signum(CommonizrKeys.compare(text, another)), text + " / " + another);
+    }
+    final String[] sorted = texts.clone();
+    Arrays.sort(sorted, CommonizrKeys.comparator());
+    final String[] expect = Arrays.stream(texts).map(Commonizr::normalizeCjk).sorted(Comparator.nullsFirst(Comparator.naturalOrder())).toArray(String[]::new);
+    assertEquals(Arrays.asList(expect), Arrays.asList(Arrays.stream(sorted).map(Commonizr::normalizeCjk).toArray(String[]::new)));
+  }
+
+  @Test
+  void allocation() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).isThreadAllocatedMemorySupported());
+    final String text = "Ｈｅｌｌｏ　Ｗｏｒｌｄ．".repeat(16);
+    final String another = "Hello World.".repeat(16);
+    final long keys = CommonizrTest.allocatedBytes(() -> CommonizrKeys.equals(text, another) && CommonizrKeys.hashCode(text) == CommonizrKeys.hashCode(another));
+    final long strings = CommonizrTest.allocatedBytes(() -> Commonizr.normalizeCjk(text).equals(Commonizr.normalizeCjk(another)) && Commonizr.normalizeCjk(text).hashCode() == Commonizr.normalizeCjk(another).hashCode());
+    assertTrue(keys < strings, String.format("keys: %d bytes / call, strings: %d bytes / call .", keys, strings));
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class CommonizrProcessorTest {
+
+  /** the processor of each {@link Sweepr.Flavor} . */
+  static final Map<Sweepr.Flavor, Supplier<CommonizrProcessor<String>>> processors = Map.of(/* @formatter:off */
+    Sweepr.Flavor.Optimize, CommonizrProcessor::optimize
+  , Sweepr.Flavor.NormalizeCjk, CommonizrProcessor::normalizeCjk
+  , Sweepr.Flavor.DenormalizeCjk, CommonizrProcessor::denormalizeCjk
+  , Sweepr.Flavor.Hiraganize, CommonizrProcessor::hiraganize
+  , Sweepr.Flavor.Katakanize, CommonizrProcessor::katakanize
+  /* @formatter:on */);
+
+  /**
+   * a publisher which emits the elements synchronously on request, and records requests .
+   *
+   * @param <T> the type of elements
+   */
+  static final class Upstream<T> implements Flow.Publisher<T>, Flow.Subscription {
+
+    final Iterator<T> elements;
+
+    final List<Long> requests = new ArrayList<>();
+
+    Flow.Subscriber<? super T> subscriber;
+
+    boolean cancelled;
+
+    Upstream(final List<T> elements) {
+      this.elements = elements.iterator();
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+      subscriber.onSubscribe(this);
+    }
+
+    @Override
+    public void request(final long n) {
+      requests.add(n);
+      for (long i = 0; i < n && !cancelled && elements.hasNext(); i++) {
+        subscriber.onNext(elements.next());
+      }
+      if (!cancelled && !elements.hasNext()) {
+        cancelled = true;
+        subscriber.onComplete();
+      }
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+    }
+  }
+
+  /**
+   * a subscriber which records signals .
+   *
+   * @param <T> the type of elements
+   */
+  static class Downstream<T> implements Flow.Subscriber<T> {
+
+    final List<T> items = new ArrayList<>();
+
+    Flow.Subscription subscription;
+
+    Throwable error;
+
+    boolean completed;
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(final T item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+  @Test
+  void test() {
+    assertThrows(NullPointerException.class, () -> CommonizrProcessor.of(null));
+    assertThrows(NullPointerException.class, () -> CommonizrProcessor.keyed(null));
+
+    final Upstream<String> upstream = new Upstream<>(IntStream.range(0, 1_000).mapToObj((i) -> "ｱ" + i).collect(Collectors.toList()));
+    final CommonizrProcessor<String> processor = new CommonizrProcessor<>(Commonizr::normalizeCjk, 8);
+    final Downstream<String> downstream = new Downstream<>();
+    upstream.subscribe(processor);
+    processor.subscribe(downstream);
+    assertTrue(upstream.requests.isEmpty());
+    downstream.subscription.request(3);
+    assertEquals(List.of("ア0", "ア1", "ア2"), downstream.items);
+    downstream.subscription.request(20);
+    assertEquals(23, downstream.items.size());
+    assertTrue(upstream.requests.stream().allMatch((n) -> n <= 8), upstream.requests.toString());
+    assertEquals(23L, upstream.requests.stream().mapToLong(Long::longValue).sum());
+    downstream.subscription.request(Long.MAX_VALUE);
+    downstream.subscription.request(Long.MAX_VALUE);
+    assertEquals(1_000, downstream.items.size());
+    assertEquals("ア999", downstream.items.get(999));
+    assertTrue(downstream.completed);
+    assertNull(downstream.error);
+
+    final Downstream<String> another = new Downstream<>() {
+      @Override
+      public void onSubscribe(final Flow.Subscription subscription) {
+        assertFalse(Thread.holdsLock(processor));
+        super.onSubscribe(subscription);
+      }
+
+      @Override
+      public void onError(final Throwable throwable) {
+        assertFalse(Thread.holdsLock(processor));
+        super.onError(throwable);
+      }
+    };
+    processor.subscribe(another);
+    assertTrue(another.error instanceof IllegalStateException);
+  }
+
+  @Test
+  void testError() {
+    final Upstream<String> upstream = new Upstream<>(List.of("a", "b", "c"));
+    final CommonizrProcessor<String> processor = CommonizrProcessor.of((t) -> {
+      if ("b".equals(t)) {
+        throw new IllegalArgumentException(t);
+      }
+
+      return t;
+    });
+    final Downstream<String> downstream = new Downstream<>();
+    processor.subscribe(downstream);
+    upstream.subscribe(processor);
+    downstream.subscription.request(10);
+    assertEquals(List.of("a"), downstream.items);
+    assertTrue(upstream.cancelled);
+    assertTrue(downstream.error instanceof IllegalArgumentException);
+    assertFalse(downstream.completed);
+
+    final Downstream<String> cancelling = new Downstream<>();
+    final Upstream<String> cancelled = new Upstream<>(List.of("a", "b", "c"));
+    final CommonizrProcessor<String> cancelledProcessor = CommonizrProcessor.optimize();
+    cancelled.subscribe(cancelledProcessor);
+    cancelledProcessor.subscribe(cancelling);
+    cancelling.subscription.request(1);
+    cancelling.subscription.cancel();
+    assertTrue(cancelled.cancelled);
+    assertEquals(List.of("a"), cancelling.items);
+
+    final Downstream<String> illegal = new Downstream<>();
+    final CommonizrProcessor<String> illegalProcessor = CommonizrProcessor.optimize();
+    new Upstream<>(List.of("a")).subscribe(illegalProcessor);
+    illegalProcessor.subscribe(illegal);
+    illegal.subscription.request(0);
+    assertTrue(illegal.error instanceof IllegalArgumentException);
+
+    final Downstream<String> nulls = new Downstream<>();
+    final Upstream<String> nullUpstream = new Upstream<>(List.of("a"));
+    final CommonizrProcessor<String> nullProcessor = CommonizrProcessor.optimize();
+    nullUpstream.subscribe(nullProcessor);
+    nullProcessor.subscribe(nulls);
+    assertThrows(NullPointerException.class, () -> nullProcessor.onNext(null));
+    assertFalse(nullUpstream.cancelled);
+    assertNull(nulls.error);
+  }
+
+  @Test
+  void testSerialSignals() throws Exception {
+    final List<String> events = new ArrayList<>();
+    final CommonizrProcessor<String> early = CommonizrProcessor.optimize();
+    early.subscribe(new Downstream<String>() {/* @formatter:off */
+      @Override public void onSubscribe(Flow.Subscription subscription) { events.add("onSubscribe"); early.onComplete(); events.add("returned"); }
+      @Override public void onComplete() { events.add("onComplete"); }
+    /* @formatter:on */});
+    assertEquals(List.of("onSubscribe", "returned", "onComplete"), events);
+
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicBoolean overlapped = new AtomicBoolean();
+    final Downstream<String> blocking = new Downstream<String>() {
+      volatile boolean inside;
+
+      @Override
+      public void onNext(final String item) {
+        inside = true;
+        entered.countDown();
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.onNext(item);
+        inside = false;
+      }
+
+      @Override
+      public void onError(final Throwable throwable) {
+        overlapped.compareAndSet(false, inside);
+        super.onError(throwable);
+      }
+    };
+    final CommonizrProcessor<String> processor = CommonizrProcessor.optimize();
+    new Upstream<>(List.of("a", "b", "c")).subscribe(processor);
+    processor.subscribe(blocking);
+    final Thread requesting = new Thread(() -> blocking.subscription.request(1));
+    requesting.start();
+    assertTrue(entered.await(10, TimeUnit.SECONDS));
+    blocking.subscription.request(0);
+    assertNull(blocking.error);
+    release.countDown();
+    requesting.join(10_000);
+    assertFalse(overlapped.get());
+    assertEquals(List.of("a"), blocking.items);
+    assertTrue(blocking.error instanceof IllegalArgumentException);
+  }
+
+  @Test
+  void testKeyed() {
+    final Upstream<Map.Entry<Integer, String>> upstream = new Upstream<>(List.of(Map.entry(1, "ｱﾚﾝ"), Map.entry(2, "ギンズバーグ")));
+    final CommonizrProcessor<Map.Entry<Integer, String>> processor = CommonizrProcessor.keyed(Commonizr::hiraganize);
+    final Downstream<Map.Entry<Integer, String>> downstream = new Downstream<>();
+    upstream.subscribe(processor);
+    processor.subscribe(downstream);
+    downstream.subscription.request(Long.MAX_VALUE);
+    assertEquals(List.of(Map.entry(1, "あれん"), Map.entry(2, "ぎんずばーぐ")), downstream.items);
+  }
+
+  @Test
+  void differentialTest() throws InterruptedException {
+    final Random random = new Random(20181010);
+    final List<String> texts = IntStream.range(0, 3_000).mapToObj((i) -> SweeprTest.randomText(random, 24)).collect(Collectors.toList());
+    for (Map.Entry<Sweepr.Flavor, Supplier<CommonizrProcessor<String>>> entry : processors.entrySet()) {
+      final List<String> results = new ArrayList<>();
+      try (SubmissionPublisher<String> publisher = new SubmissionPublisher<>()) {
+        final CommonizrProcessor<String> processor = entry.getValue().get();
+        publisher.subscribe(processor);
+        final CompletableFuture<Void> consumed = new CompletableFuture<>();
+        processor.subscribe(new Flow.Subscriber<String>() {/* @formatter:off */
+          Flow.Subscription subscription;
+          @Override public void onSubscribe(Flow.Subscription subscription) { (this.subscription = subscription).request(1); }
+          @Override public void onNext(String item) { results.add(item); subscription.request(1); }
+          @Override public void onError(Throwable throwable) { consumed.completeExceptionally(throwable); }
+          @Override public void onComplete() { consumed.complete(null); }
+        /* @formatter:on */});
+        texts.forEach(publisher::submit);
+        publisher.close();
+        consumed.orTimeout(30, TimeUnit.SECONDS).join();
+      }
+      assertEquals(texts.stream().map(CommonizrReaderTest.flavors.get(entry.getKey())).collect(Collectors.toList()), results, entry.getKey().toString());
+    }
+  }
+}
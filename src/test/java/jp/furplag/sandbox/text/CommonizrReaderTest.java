@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class CommonizrReaderTest {
+
+  /** the {@link String} API of each {@link Sweepr.Flavor} . */
+  static final Map<Sweepr.Flavor, UnaryOperator<String>> flavors = Map.of(/* @formatter:off */
+    Sweepr.Flavor.Optimize, Commonizr::optimize
+  , Sweepr.Flavor.NormalizeCjk, Commonizr::normalizeCjk
+  , Sweepr.Flavor.DenormalizeCjk, Commonizr::denormalizeCjk
+  , Sweepr.Flavor.Hiraganize, Commonizr::hiraganize
+  , Sweepr.Flavor.Katakanize, Commonizr::katakanize
+  /* @formatter:on */);
+
+  static String read(final Reader reader) {
+    final StringWriter writer = new StringWriter();
+    try (reader) {
+      reader.transferTo(writer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return writer.toString();
+  }
+
+  @Test
+  void test() throws IOException {
+    assertThrows(NullPointerException.class, () -> CommonizrReader.optimize(null));
+    assertEquals("", read(CommonizrReader.optimize(new StringReader(""))));
+    assertEquals("the String.\nthe String.", read(CommonizrReader.optimize(new StringReader(" 　 the String. 　 \n\n 　 the String. 　 \n"))));
+    assertEquals("Hello World.", read(CommonizrReader.normalizeCjk(new StringReader("Ｈｅｌｌｏ　Ｗｏｒｌｄ．"))));
+    assertEquals("Ｈｅｌｌｏ　Ｗｏｒｌｄ．", read(CommonizrReader.denormalizeCjk(new StringReader("Hello World."))));
+    assertEquals("わ゛ゐ゛ゔゑ゛を゛", read(CommonizrReader.hiraganize(new StringReader("ヷヸヴヹヺ"))));
+    assertEquals("アレン・ギンズバーグ", read(CommonizrReader.katakanize(new StringReader("ｱﾚﾝ･ｷﾞﾝｽﾞﾊﾞｰｸﾞ"))));
+
+    try (Reader reader = new CommonizrReader(new StringReader("  ｶ ﾞ  ｶ  ゛  "), Sweepr.Flavor.NormalizeCjk, 1)) {
+      assertFalse(reader.ready());
+      assertEquals('カ', reader.read());
+      final char[] cbuf = new char[4];
+      assertEquals(0, reader.read(cbuf, 0, 0));
+      assertThrows(IndexOutOfBoundsException.class, () -> reader.read(cbuf, 3, 2));
+      final StringBuilder read = new StringBuilder();
+      for (int length = reader.read(cbuf, 0, 4); length > -1; length = reader.read(cbuf, 0, 4)) {
+        read.append(cbuf, 0, length);
+      }
+      assertEquals("゛ ガ", read.toString());
+      assertEquals(-1, reader.read(cbuf, 0, 4));
+      assertEquals(-1, reader.read());
+      reader.close();
+      assertThrows(IOException.class, () -> reader.read());
+      assertThrows(IOException.class, () -> reader.ready());
+    }
+  }
+
+  @Test
+  void differentialTest() {
+    final Random random = new Random(20181010);
+    IntStream.range(0, 3_000).mapToObj((i) -> SweeprTest.randomText(random, 24)).forEach((text) -> flavors.forEach((flavor, expect) -> {
+      for (int bufferSize : new int[] { 1, 2, 3, CommonizrReader.defaultBufferSize }) {
+        assertEquals(expect.apply(text), read(new CommonizrReader(new StringReader(text), flavor, bufferSize)), text);
+      }
+    }));
+  }
+
+  @Test
+  void testTrimMultiline() {
+    assertThrows(NullPointerException.class, () -> CommonizrReader.trimMultiline(null));
+    assertEquals("", read(CommonizrReader.trimMultiline(new StringReader(""))));
+    assertEquals("the String.\n　\nthe String.", read(CommonizrReader.trimMultiline(new StringReader(" 　 the String. \n\n 　 \n the String. 　 \n"))));
+    final Random random = new Random(20181010);
+    IntStream.range(0, 3_000).mapToObj((i) -> LinerTest.randomText(random, 24)).forEach((text) -> {
+      for (int bufferSize : new int[] { 1, 2, 3, CommonizrReader.defaultBufferSize }) {
+        assertEquals(Commonizr.trimMultiline(text), read(CommonizrReader.trimMultiline(new StringReader(text), bufferSize)), text);
+      }
+    });
+  }
+
+  @Test
+  void longRunOfHangul() {
+    final Random random = new Random(20181010);
+    final String text = IntStream.range(0, Sweepr.runThreshold * 3).mapToObj((i) -> Character.toString(0xFFA0 + random.nextInt(0x3D))).reduce("", String::concat) + "ﾞ";
+    assertEquals(SweeprTest.normalizeCjk(text), read(new CommonizrReader(new StringReader(text), Sweepr.Flavor.NormalizeCjk, 100)));
+    final String vowels = IntStream.range(0, Sweepr.runThreshold * 3).mapToObj((i) -> Character.toString(0xFFC2 + random.nextInt(0x1B)) + (random.nextInt(8) < 1 ? "ﾞﾟ" : "")).reduce("", String::concat);
+    assertEquals(SweeprTest.normalizeCjk(vowels), read(new CommonizrReader(new StringReader(vowels), Sweepr.Flavor.NormalizeCjk, 100)));
+    final String syllables = "ﾡￂ".repeat(Sweepr.runThreshold / 2) + "ﾣ";
+    assertEquals(SweeprTest.normalizeCjk(syllables), read(new CommonizrReader(new StringReader(syllables), Sweepr.Flavor.NormalizeCjk, 100)));
+    final String marks = "x" + "〪〬".repeat(Sweepr.runThreshold * 3 / 2) + "y";
+    assertEquals(SweeprTest.normalizeCjk(marks), read(new CommonizrReader(new StringReader(marks), Sweepr.Flavor.NormalizeCjk, 100)));
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class CommonizrSortKeyTest {
+
+  @Test
+  void test() {
+    assertNull(CommonizrSortKey.of(null));
+    assertNull(CommonizrSortKey.decode(null));
+    assertArrayEquals(new byte[0], CommonizrSortKey.of(""));
+    assertEquals(0, CommonizrSortKey.compare(null, null));
+    assertTrue(CommonizrSortKey.compare(null, new byte[0]) < 0);
+    assertArrayEquals(new byte[] { 0x33, 0x7D, (byte) 0x91, 0x5C, 0x59 }, CommonizrSortKey.of("ｱﾚｰﾄ"));
+    assertArrayEquals(CommonizrSortKey.of("あれーと"), CommonizrSortKey.of("アレート"));
+    assertArrayEquals(CommonizrSortKey.of("あれーと"), CommonizrSortKey.of("ｱﾚｰﾄ"));
+    assertArrayEquals(new byte[] { (byte) 0xAA, (byte) 0xE5, (byte) 0xE5, (byte) 0xD8, 0x3D, (byte) 0xE5, (byte) 0xDE, 0x00, 0x00, 'A' }, CommonizrSortKey.of("日😀Ａ"));
+    assertEquals("あれーと", CommonizrSortKey.decode(CommonizrSortKey.of("ｱﾚｰﾄ")));
+    assertThrows(IllegalArgumentException.class, () -> CommonizrSortKey.decode(new byte[] { (byte) 0xFF }));
+    assertThrows(IllegalArgumentException.class, () -> CommonizrSortKey.decode(new byte[] { 0x00 }));
+    assertThrows(IllegalArgumentException.class, () -> CommonizrSortKey.decode(new byte[] { (byte) 0x92, 0x30 }));
+  }
+
+  @Test
+  void testAllCharacters() {
+    final StringBuilder decoded = new StringBuilder();
+    for (int lead = 0; lead < 0x100; lead++) {
+      final int length = lead == 0x92 || lead == 0xE5 ? 3 : lead > 0x30 && lead <= 0x90 ? 1 : 2;
+      for (int trail = 0; trail < (length == 3 ? 0x10000 : length == 2 ? 0x100 : 1); trail++) {
+        final byte[] key = length == 1 ? new byte[] { (byte) lead } : length == 2 ? new byte[] { (byte) lead, (byte) trail } : new byte[] { (byte) lead, (byte) (trail >> 8), (byte) trail };
+        final String c;
+        try {
+          c = CommonizrSortKey.decode(key);
+        } catch (IllegalArgumentException e) {
+          continue;
+        }
+        decoded.append(c);
+        if (c.equals(Commonizr.hiraganize(c))) {
+          assertArrayEquals(key, CommonizrSortKey.of(c), Integer.toHexString(c.charAt(0)));
+        }
+      }
+    }
+    assertEquals(0x10000, decoded.length());
+    IntStream.range(0, decoded.length()).forEach((i) -> assertEquals(i, decoded.charAt(i), Integer.toHexString(i)));
+  }
+
+  @Test
+  void differentialTest() {
+    final Random random = new Random(20181010);
+    final String[] texts = IntStream.range(0, 3_000).mapToObj((i) -> random.nextInt(10) < 1 ? null : SweeprTest.randomText(random, 8) + (random.nextBoolean() ? "" : Character.toString(random.nextInt(0x10000)))).toArray(String[]::new);
+    final Comparator<String> comparator = Comparator.nullsFirst(Comparator.naturalOrder());
+    for (String text : texts) {
+      final String another = texts[random.nextInt(texts.length)];
+      final String hiraganized = Commonizr.hiraganize(text);
+      assertEquals(hiraganized, CommonizrSortKey.decode(CommonizrSortKey.of(text)), text);
+      assertEquals(Integer.signum(comparator.compare(hiraganized, Commonizr.hiraganize(another))), Integer.signum(CommonizrSortKey.compare(CommonizrSortKey.of(text), CommonizrSortKey.of(another))), text + " / " + another);
+    }
+    final String[] expect = Arrays.stream(texts).map(Commonizr::hiraganize).sorted(comparator).toArray(String[]::new);
+    assertArrayEquals(expect, Arrays.stream(texts).map(CommonizrSortKey::of).sorted(CommonizrSortKey::compare).map(CommonizrSortKey::decode).toArray(String[]::new));
+  }
+}
@@ -16,21 +16,54 @@
 package jp.furplag.sandbox.text;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.Character.UnicodeBlock;
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import jp.furplag.sandbox.reflect.SavageReflection;
 import org.junit.jupiter.api.Test;
 
 public class CommonizrTest {
 
+  /**
+   * returns the average of bytes which allocated in the current thread per each call .
+   *
+   * @param supplier the operation
+   * @return the average of bytes which allocated per each call
+   */
+  static long allocatedBytes(final Supplier<?> supplier) {
+    final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    IntStream.range(0, 10_000).forEach((i) -> supplier.get());
+    final long before = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    IntStream.range(0, 10_000).forEach((i) -> supplier.get());
+
+    return (threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - before) / 10_000;
+  }
+
+  @Test
+  void precompiled() {
+    final String text = " \u0010 ヷヸヴヹヺ \u200B ";
+    assertEquals(Commonizr.trim(text), Regexr.replaceAll(text, Regexr.removeCtrls, Regexr.removeEmpties, new Regexr.Origin("^[\\p{javaWhitespace}\u00A0]+|[\\p{javaWhitespace}\u00A0]+$", null, 10) {}, Regexr.trim));
+    assertEquals(Commonizr.hiraganize(text), Regexr.replaceAll(Commonizr.hiraganizr.normalize(Commonizr.normalizeCjk(text)), new Regexr.Origin("\\x{30F7}", "\u308F\u309B") {}, new Regexr.Origin("\\x{30F8}", "\u3090\u309B") {}, new Regexr.Origin("\\x{30F9}", "\u3091\u309B") {}, new Regexr.Origin("\\x{30FA}", "\u3092\u309B") {}));
+  }
+
   @Test
-  @SuppressWarnings("unchecked")
   void test() {
     try {
       new Commonizr.Normalizr.Kanizr(0, null) {};
@@ -38,8 +71,26 @@ public class CommonizrTest {
     } catch (Throwable ex) {
       assertTrue(ex instanceof NullPointerException);
     }
-    assertTrue(((Set<Integer>) SavageReflection.get(new Commonizr.Normalizr.Kanizr(0, UnicodeBlock.BASIC_LATIN) {}, "exclusions")).isEmpty());
-    assertTrue(((Set<Integer>) SavageReflection.get(new Commonizr.Normalizr.Kanizr(0, UnicodeBlock.BASIC_LATIN, (int[]) null) {}, "exclusions")).isEmpty());
+    assertEquals('b', new Commonizr.Normalizr.Kanizr(1, UnicodeBlock.BASIC_LATIN) {}.translate('a'));
+    assertEquals('b', new Commonizr.Normalizr.Kanizr(1, UnicodeBlock.BASIC_LATIN, (int[]) null) {}.translate('a'));
+    assertEquals('a', new Commonizr.Normalizr.Kanizr(1, UnicodeBlock.BASIC_LATIN, 'a') {}.translate('a'));
+    assertEquals(0x1F600, new Commonizr.Normalizr.Kanizr(1, UnicodeBlock.BASIC_LATIN) {}.translate(0x1F600));
+    assertEquals(0x3042, new Commonizr.Normalizr.Kanizr(0, UnicodeBlock.HIRAGANA) {}.translate(0x3042));
+  }
+
+  @Test
+  void testTranslate() {
+    final Set<Integer> hiraganizrExclusions = Set.of(12448, 12535, 12536, 12537, 12538, 12539, 12540, 12543);
+    final Set<Integer> katakanizrExclusions = Set.of(12352, 12439, 12440, 12441, 12442, 12443, 12444, 12447);
+    IntStream.rangeClosed(Character.MIN_CODE_POINT, Character.MAX_CODE_POINT).forEach((codePoint) -> {
+      assertEquals(codePoint + (!hiraganizrExclusions.contains(codePoint) && UnicodeBlock.KATAKANA.equals(UnicodeBlock.of(codePoint)) ? 'あ' - 'ア' : 0), Commonizr.hiraganizr.translate(codePoint));
+      assertEquals(codePoint + (!katakanizrExclusions.contains(codePoint) && UnicodeBlock.HIRAGANA.equals(UnicodeBlock.of(codePoint)) ? 'ア' - 'あ' : 0), Commonizr.katakanizr.translate(codePoint));
+    });
+    final String text = "Hello World. 😀";
+    assertSame(text, Commonizr.hiraganizr.normalize(text));
+    assertSame(text, Commonizr.katakanizr.normalize(text));
+    assertEquals("ひらがな ひらがな 😀", Commonizr.hiraganize("ヒラガナ ひらがな 😀"));
+    assertEquals("カタカナ カタカナ 😀", Commonizr.katakanize("かたかな カタカナ 😀"));
   }
 
   @Test
@@ -59,6 +110,55 @@ public class CommonizrTest {
     assertEquals(expect, Commonizr.denormalizeCjk(latins));
   }
 
+  @Test
+  void testAppendable() {
+    assertThrows(NullPointerException.class, () -> Commonizr.optimize(null, 0, 0, new StringBuilder()));
+    assertThrows(NullPointerException.class, () -> Commonizr.optimize("", 0, 0, null));
+    assertThrows(IndexOutOfBoundsException.class, () -> Commonizr.optimize("abc", 2, 1, new StringBuilder()));
+    assertThrows(IndexOutOfBoundsException.class, () -> Commonizr.optimize("abc", 0, 4, new StringBuilder()));
+    assertThrows(UncheckedIOException.class, () -> Commonizr.normalizeCjk("ｱ", 0, 1, new Appendable() {
+      @Override
+      public Appendable append(CharSequence csq) throws IOException {
+        throw new IOException();
+      }
+
+      @Override
+      public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        throw new IOException();
+      }
+
+      @Override
+      public Appendable append(char c) throws IOException {
+        throw new IOException();
+      }
+    }));
+    final String line = "ｱｲｳ,  Ｈｅｌｌｏ　Ｗｏｒｌｄ．  ,plain";
+    assertEquals("[Hello World.]", Commonizr.normalizeCjk(CharBuffer.wrap(line), 4, 20, new StringBuilder("[")).append("]").toString());
+    assertEquals("アイウplain", Commonizr.normalizeCjk(line, 21, 26, Commonizr.normalizeCjk(new StringBuilder(line), 0, 3, new StringBuilder())).toString());
+
+    final Map<String, UnaryOperator<String>> functions = Map.of("optimize", Commonizr::optimize, "normalizeCjk", Commonizr::normalizeCjk, "denormalizeCjk", Commonizr::denormalizeCjk, "hiraganize", Commonizr::hiraganize, "katakanize", Commonizr::katakanize);
+    final Map<String, Function<String, StringBuilder>> appendables = Map.of(/* @formatter:off */
+      "optimize", (t) -> Commonizr.optimize("<<" + t + ">>", 2, t.length() + 2, new StringBuilder())
+    , "normalizeCjk", (t) -> Commonizr.normalizeCjk(new StringBuilder("<<").append(t), 2, t.length() + 2, new StringBuilder())
+    , "denormalizeCjk", (t) -> Commonizr.denormalizeCjk(CharBuffer.wrap(t + ">>"), 0, t.length(), new StringBuilder())
+    , "hiraganize", (t) -> Commonizr.hiraganize(t, 0, t.length(), new StringBuilder())
+    , "katakanize", (t) -> Commonizr.katakanize(t, 0, t.length(), new StringBuilder())
+    /* @formatter:on */);
+    final Random random = new Random(20181010);
+    IntStream.range(0, 10_000).mapToObj((i) -> SweeprTest.randomText(random, 16)).forEach((t) -> functions.forEach((name, function) -> assertEquals(function.apply(t), appendables.get(name).apply(t).toString(), name + ": " + t)));
+  }
+
+  @Test
+  void testDenormalizeCjkDifferential() {
+    final Map<Integer, Integer> exclusives = Map.of(0x00B7, 0xFF65, 0x00A2, 0xFFE0, 0x00A3, 0xFFE1, 0x00AC, 0xFFE2, 0x00AF, 0xFFE3, 0x00A6, 0xFFE4, 0x20A9, 0xFFE5, 0x00A5, 0xFFE6, 0x2502, 0xFFE8);
+    IntStream.rangeClosed(Character.MIN_CODE_POINT, Character.MAX_CODE_POINT).forEach((codePoint) -> assertEquals((int) exclusives.getOrDefault(codePoint, codePoint + (!UnicodeBlock.BASIC_LATIN.equals(UnicodeBlock.of(codePoint)) || Character.isWhitespace(codePoint) ? 0 : '！' - '!')), Commonizr.cjkNormalizr.translate(codePoint)));
+
+    final Random random = new Random(20181010);
+    IntStream.range(0, 10_000).mapToObj((i) -> SweeprTest.randomText(random, 16) + "a ~\u00A5\u20A9\u2502😀").forEach((t) -> {
+      assertEquals(Commonizr.normalizeCjk(t).codePoints().mapToObj((i) -> Regexr.newString(Commonizr.cjkNormalizr.translate(i))).collect(Collectors.joining()).replaceAll("\u0020", "\u3000"), Commonizr.denormalizeCjk(t), t);
+    });
+  }
+
   @Test
   void testHiraganize() {
     assertNull(Commonizr.hiraganize(null));
@@ -82,6 +182,41 @@ public class CommonizrTest {
     assertEquals("あれん・ぎんずばーぐ", Commonizr.hiraganize("ｱﾚﾝ･ｷﾞﾝｽﾞﾊﾞｰｸﾞ"));
   }
 
+  @Test
+  void testIsNormalized() {
+    assertTrue(Commonizr.isNormalized(null));
+    assertTrue(Commonizr.isNormalized(""));
+    assertTrue(Commonizr.isNormalized("abc-123"));
+    assertTrue(Commonizr.isNormalized("a b\nc"));
+    assertTrue(Commonizr.isNormalized("ア アイ ガ"));
+    assertFalse(Commonizr.isNormalized("カ゛"));
+    assertFalse(Commonizr.isNormalized(" a"));
+    assertFalse(Commonizr.isNormalized("a "));
+    assertFalse(Commonizr.isNormalized("a  b"));
+    assertFalse(Commonizr.isNormalized("a \nb"));
+    assertFalse(Commonizr.isNormalized("a\tb"));
+    assertFalse(Commonizr.isNormalized("a\u200Bb"));
+    assertFalse(Commonizr.isNormalized("ｱ"));
+    assertFalse(Commonizr.isNormalized("ＡＢＣ"));
+    assertFalse(Commonizr.isNormalized("a‐b"));
+
+    final String text = "already normalized text, ひらがな カタカナ 漢字\n123";
+    assertSame(text, Commonizr.optimize(text));
+    assertSame(text, Commonizr.normalizeCjk(text));
+
+    final Random random = new Random(20181010);
+    IntStream.range(0, 30_000).mapToObj((i) -> SweeprTest.randomText(random, 8)).forEach((t) -> {
+      assertEquals(Commonizr.normalizeCjk(t).equals(t), Commonizr.isNormalized(t), t);
+      assertEquals(SweeprTest.optimize(t), Commonizr.optimize(t), t);
+      if (Sweepr.isNormalized(t, false)) {
+        assertSame(t, Commonizr.optimize(t), t);
+      }
+      if (Sweepr.isNormalized(t, true)) {
+        assertSame(t, Commonizr.normalizeCjk(t), t);
+      }
+    });
+  }
+
   @Test
   void testKatakanize() {
     assertNull(Commonizr.katakanize(null));
@@ -156,6 +291,33 @@ public class CommonizrTest {
     assertEquals("trimmed", Commonizr.trim("  \n  trimmed  \n  "));
     assertEquals("trimmed  trimmed", Commonizr.trim("  \n  trimmed  trimmed  \n  "));
     assertEquals("trimmed  \n  trimmed  \n  trimmed", Commonizr.trim("  \n  trimmed  \n  trimmed  \n  trimmed  \n  "));
+    final String trimmed = "トリム‐済み";
+    assertSame(trimmed, Commonizr.trim(trimmed));
+
+    final UnaryOperator<String> trim = (t) -> Regexr.replaceAll(t, Regexr.removeCtrls, Regexr.removeEmpties, new Regexr.Origin("^[\\p{javaWhitespace}\u00A0]+|[\\p{javaWhitespace}\u00A0]+$", null, 10) {}, Regexr.trim);
+    final Random random = new Random(20181010);
+    IntStream.range(0, 10_000).mapToObj((i) -> SweeprTest.randomText(random, 24)).forEach((t) -> assertEquals(trim.apply(t), Commonizr.trim(t), t));
+  }
+
+  @Test
+  void testLatin1() {
+    assertNull(Sweepr.optimizeLatin1(null));
+    assertNull(Sweepr.optimizeLatin1("the String.\u3000"));
+    assertNull(Sweepr.trimLatin1(null));
+    assertNull(Sweepr.trimLatin1("\u3000the String."));
+    final String normalized = "the String.";
+    assertSame(normalized, Sweepr.optimizeLatin1(normalized));
+    assertSame(normalized, Sweepr.trimLatin1(normalized));
+
+    final UnaryOperator<String> trim = (t) -> Regexr.replaceAll(t, Regexr.removeCtrls, Regexr.removeEmpties, new Regexr.Origin("^[\\p{javaWhitespace}\u00A0]+|[\\p{javaWhitespace}\u00A0]+$", null, 10) {}, Regexr.trim);
+    final char[] frequents = " \t\n\r\u000B\u000C\u001C\u001F\u0085\u00A0\u0000\u007Fa.".toCharArray();
+    final Random random = new Random(20181010);
+    IntStream.range(0, 30_000).mapToObj((i) -> IntStream.range(0, random.nextInt(24)).mapToObj((j) -> Character.toString(random.nextBoolean() ? frequents[random.nextInt(frequents.length)] : random.nextInt(0x100))).collect(Collectors.joining())).forEach((t) -> {
+      assertEquals(SweeprTest.optimize(t), Sweepr.optimizeLatin1(t), t);
+      assertEquals(SweeprTest.optimize(t), Commonizr.optimize(t), t);
+      assertEquals(trim.apply(t), Sweepr.trimLatin1(t), t);
+      assertEquals(trim.apply(t), Commonizr.trim(t), t);
+    });
   }
 
   @Test
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CommonizrUtf8Test {
+
+  /**
+   * returns the result of the {@link String} API .
+   *
+   * @param flavor the kind of normalization
+   * @param bytes UTF-8 encoded bytes
+   * @return UTF-8 encoded normalized bytes
+   */
+  static byte[] expect(final Sweepr.Flavor flavor, final byte[] bytes) {
+    return CommonizrReaderTest.flavors.get(flavor).apply(new String(bytes, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void test() throws IOException {
+    assertNull(CommonizrUtf8.optimize().apply((byte[]) null));
+    assertThrows(NullPointerException.class, () -> CommonizrUtf8.optimize().apply((ByteBuffer) null));
+    assertArrayEquals(new byte[] {}, CommonizrUtf8.optimize().apply(new byte[] {}));
+    assertArrayEquals("Hello World.".getBytes(StandardCharsets.UTF_8), CommonizrUtf8.normalizeCjk().apply("　Ｈｅｌｌｏ　　Ｗｏｒｌｄ．\n".getBytes(StandardCharsets.UTF_8)));
+    assertArrayEquals("ア�イ".getBytes(StandardCharsets.UTF_8), CommonizrUtf8.normalizeCjk().apply(new byte[] {(byte) 0xEF, (byte) 0xBD, (byte) 0xB1, (byte) 0xE3, (byte) 0x82, (byte) 0xEF, (byte) 0xBD, (byte) 0xB2}));
+
+    final ByteBuffer source = ByteBuffer.wrap("__ｶﾞ__".getBytes(StandardCharsets.UTF_8));
+    source.position(2).limit(source.limit() - 2);
+    final ByteBuffer result = CommonizrUtf8.katakanize().apply(source);
+    assertEquals(0, source.remaining());
+    assertEquals("ガ", StandardCharsets.UTF_8.decode(result).toString());
+
+    final ByteArrayOutputStream destination = new ByteArrayOutputStream();
+    assertEquals(6, CommonizrUtf8.hiraganize().apply(ByteBuffer.wrap("ｶﾞｷﾞ".getBytes(StandardCharsets.UTF_8)), Channels.newChannel(destination)));
+    assertEquals("がぎ", destination.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void differentialTest() {
+    final Random random = new Random(20181010);
+    IntStream.range(0, 3_000).mapToObj((i) -> {
+      final byte[] bytes = SweeprTest.randomText(random, 24).getBytes(StandardCharsets.UTF_8);
+      if (bytes.length > 0 && i % 10 == 0) {
+        bytes[random.nextInt(bytes.length)] = (byte) random.nextInt(0x100);
+      }
+
+      return bytes;
+    }).forEach((bytes) -> CommonizrReaderTest.flavors.keySet().forEach((flavor) -> {
+      final byte[] expected = expect(flavor, bytes);
+      for (int bufferSize : new int[] {1, 2, 3, 5, CommonizrUtf8.defaultBufferSize}) {
+        assertArrayEquals(expected, new CommonizrUtf8(flavor, bufferSize).apply(bytes), () -> flavor + ", " + bufferSize + ": " + Arrays.toString(bytes));
+      }
+    }));
+  }
+
+  @Test
+  void testPath(@TempDir final Path directory) throws IOException {
+    final Random random = new Random(20181010);
+    final StringBuilder text = new StringBuilder();
+    IntStream.range(0, 2_000).forEach((i) -> text.append(SweeprTest.randomText(random, 64)).append("\n"));
+    final byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+    final Path source = Files.write(directory.resolve("source.txt"), bytes);
+    final Path empty = Files.write(directory.resolve("empty.txt"), new byte[] {});
+    final Path destination = directory.resolve("destination.txt");
+    for (Sweepr.Flavor flavor : CommonizrReaderTest.flavors.keySet()) {
+      final byte[] expected = expect(flavor, bytes);
+      assertEquals(expected.length, new CommonizrUtf8(flavor, 7).apply(source, destination));
+      assertArrayEquals(expected, Files.readAllBytes(destination));
+      assertEquals(0, new CommonizrUtf8(flavor, 7).apply(empty, destination));
+      assertArrayEquals(new byte[] {}, Files.readAllBytes(destination));
+    }
+  }
+}
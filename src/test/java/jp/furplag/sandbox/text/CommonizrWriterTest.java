@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class CommonizrWriterTest {
+
+  static String write(final Function<Writer, Writer> writer, final String... texts) {
+    final StringWriter destination = new StringWriter();
+    try (Writer _writer = writer.apply(destination)) {
+      for (String text : texts) {
+        _writer.write(text);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return destination.toString();
+  }
+
+  @Test
+  void test() throws IOException {
+    assertThrows(NullPointerException.class, () -> CommonizrWriter.optimize(null));
+    assertEquals("", write(CommonizrWriter::optimize));
+    assertEquals("the String.\nthe String.", write(CommonizrWriter::optimize, " 　 the String. 　 \n", "\n 　 the String. 　 \n"));
+    assertEquals("Hello World.", write(CommonizrWriter::normalizeCjk, "Ｈｅｌｌｏ　", "Ｗｏｒｌｄ．"));
+    assertEquals("Ｈｅｌｌｏ　Ｗｏｒｌｄ．", write(CommonizrWriter::denormalizeCjk, "Hello ", "World."));
+    assertEquals("わ゛ゐ゛ゔゑ゛を゛", write(CommonizrWriter::hiraganize, "ワ", "゛ヰ゛ウ゛ヱ゛ヲ", "゛"));
+    assertEquals("アレン・ギンズバーグ", write(CommonizrWriter::katakanize, "ｱﾚﾝ･ｷ", "ﾞﾝｽﾞﾊﾞｰｸ", "ﾞ"));
+
+    final StringWriter destination = new StringWriter();
+    final Writer writer = CommonizrWriter.normalizeCjk(destination);
+    writer.write("ｶ ");
+    writer.flush();
+    assertEquals("", destination.toString());
+    writer.write(" ｶ");
+    writer.flush();
+    assertEquals("カ", destination.toString());
+    writer.write("ﾞ ".toCharArray());
+    assertThrows(IndexOutOfBoundsException.class, () -> writer.write("ｶ", 1, 1));
+    writer.close();
+    writer.close();
+    assertEquals("カ ガ", destination.toString());
+    assertThrows(IOException.class, () -> writer.write("ｶ"));
+    assertThrows(IOException.class, () -> writer.flush());
+  }
+
+  @Test
+  void longRunOfComplex() throws IOException {
+    for (char c : new char[] { '\uFFC2', '\uFF9E' }) {
+      final String chunk = String.valueOf(c).repeat(0x400);
+      final StringWriter destination = new StringWriter();
+      final Writer writer = CommonizrWriter.normalizeCjk(destination);
+      writer.write("ﾡ");
+      for (int i = 0; i < 0x800; i++) {
+        writer.write(chunk);
+      }
+      writer.flush();
+      final String expect = Commonizr.normalizeCjk("ﾡ" + chunk.repeat(0x800));
+      if (!CodePoints.isMark(Normalizer.normalize(String.valueOf(c), Form.NFKD).charAt(0))) {
+        assertTrue(expect.length() - destination.getBuffer().length() < Sweepr.runThreshold * 2, String.format("U+%04X", (int) c));
+      }
+      writer.close();
+      assertEquals(expect, destination.toString());
+    }
+  }
+
+  @Test
+  void differentialTest() {
+    final Random random = new Random(20181010);
+    IntStream.range(0, 3_000).mapToObj((i) -> SweeprTest.randomText(random, 24)).forEach((text) -> CommonizrReaderTest.flavors.forEach((flavor, expect) -> {
+      assertEquals(expect.apply(text), write((destination) -> new CommonizrWriter(destination, flavor), text.split("(?<=\\G.{1,3})")), text);
+    }));
+  }
+}
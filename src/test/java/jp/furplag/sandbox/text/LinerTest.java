@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class LinerTest {
+
+  /** the characters which each rules of {@link Commonizr#trimMultiline(String)} concerned . */
+  static final int[] alphabet = IntStream.of(/* @formatter:off */
+    ' ', ' ', ' ', ' ', '\n', '\n', '\n', '\t', '\r', 0x000B, 0x000C, 0x001C, 0x001F, 0x0085, 0x0000, 0x0007, 0x007F, 0x00A0, 0x1680
+  , 0x2000, 0x200B, 0x2028, 0x2029, 0x202F, 0x205F, 0x2060, 0x3000, 'a', 'A', '-', 0x30AB, 0x1F600, 0xD800, 0xDC00
+  /* @formatter:on */).toArray();
+
+  /**
+   * {@link Commonizr#trimMultiline(String)} using {@link Regexr Regexr(s)} .
+   *
+   * @param text the string, maybe null
+   * @return trimmed text
+   */
+  static String trimMultiline(final String text) {
+    return Regexr.replaceAll(Regexr.replaceAll(text, Regexr.removeCtrls, Regexr.removeEmpties, new Regexr.Origin("^[\\p{javaWhitespace} ]+|[\\p{javaWhitespace} ]+$", null, 10) {}, Regexr.trim), Regexr.lineFeedsSinglize, Regexr.trim);
+  }
+
+  /**
+   * returns randomly generated text using {@link #alphabet} .
+   *
+   * @param random {@link Random}
+   * @param maxLength the max length of code points
+   * @return randomly generated text
+   */
+  static String randomText(final Random random, final int maxLength) {
+    return Regexr.newString(IntStream.range(0, random.nextInt(maxLength + 1)).map((i) -> alphabet[random.nextInt(alphabet.length)]).toArray());
+  }
+
+  @Test
+  void test() {
+    assertNull(Liner.trimMultiline(null));
+    assertEquals("", Liner.trimMultiline(""));
+    assertEquals("", Liner.trimMultiline(" \r\n 　 \n "));
+    final String trimmed = "trimmed\ntrimmed";
+    assertSame(trimmed, Liner.trimMultiline(trimmed));
+    assertEquals("trimmed\ntrimmed\ntrimmed", Liner.trimMultiline("  \n  trimmed  \n\n\n  trimmed \r\n trimmed  \n  "));
+    assertEquals("trimmed\n　\ntrimmed", Liner.trimMultiline("trimmed \n 　 \n trimmed"));
+    assertEquals("trimmed  trimmed", Liner.trimMultiline("\u0000trimmed  trimmed​"));
+  }
+
+  @Test
+  void testIncremental() {
+    final Liner liner = new Liner(0);
+    assertEquals("a", liner.accept(" \n a \n", 0, 6).destination().toString());
+    assertEquals("a\nb", liner.accept(" \n b  ", 0, 6).destination().toString());
+    assertEquals("a\nb", liner.finish().destination().toString());
+    assertEquals("", liner.reset().destination().toString());
+    assertEquals("c", liner.accept("  c ", 0, 4).finish().destination().toString());
+  }
+
+  @Test
+  void differentialTest() {
+    final Random random = new Random(20181010);
+    IntStream.range(0, 30_000).mapToObj((i) -> randomText(random, 24)).forEach((text) -> assertEquals(trimMultiline(text), Commonizr.trimMultiline(text), text));
+  }
+}
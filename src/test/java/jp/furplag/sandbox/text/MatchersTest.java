@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class MatchersTest {
+
+  /**
+   * returns the nested result of {@link Matchers#apply(Pattern, CharSequence, Object, java.util.function.BiFunction)} .
+   *
+   * @param pattern {@link Pattern}
+   * @param depth the depth of nesting
+   * @param matchers {@link Matcher Matcher(s)} which used in each depth
+   * @return the sum of the count of matches of each depth
+   */
+  private static int nested(final Pattern pattern, final int depth, final List<Matcher> matchers) {
+    return depth < 1 ? 0 : Matchers.apply(pattern, "a".repeat(depth), null, (m, a) -> {
+      matchers.add(m);
+      int count = m.find() ? 1 + nested(pattern, depth - 1, matchers) : 0;
+      while (m.find()) {
+        count++;
+      }
+
+      return count;
+    });
+  }
+
+  @Test
+  void test() {
+    assertTrue(Regexr.isMatcherReuse());
+    final Pattern pattern = Pattern.compile("a");
+    final Matcher[] matchers = new Matcher[2];
+    Matchers.apply(pattern, "a", null, (m, a) -> matchers[0] = m);
+    Matchers.apply(pattern, "b", null, (m, a) -> matchers[1] = m);
+    assertSame(matchers[0], matchers[1]);
+    assertEquals("", matchers[0].reset().replaceAll(""));
+
+    final List<Matcher> used = new ArrayList<>();
+    assertEquals(nested(Pattern.compile("a"), 12, new ArrayList<>()), nested(pattern, 12, used));
+    assertEquals(12, used.subList(0, 12).stream().distinct().count());
+  }
+
+  @Test
+  void testDisabled() {
+    final Pattern pattern = Pattern.compile("a");
+    try {
+      Regexr.setMatcherReuse(false);
+      assertFalse(Regexr.isMatcherReuse());
+      final Matcher[] matchers = new Matcher[2];
+      Matchers.apply(pattern, "a", null, (m, a) -> matchers[0] = m);
+      Matchers.apply(pattern, "a", null, (m, a) -> matchers[1] = m);
+      assertNotSame(matchers[0], matchers[1]);
+      assertTrue(Regexr.trim.matches(" a"));
+      assertEquals("a", Regexr.trim.replaceAll(" a"));
+    } finally {
+      Regexr.setMatcherReuse(true);
+    }
+  }
+
+  @Test
+  void testRegexr() throws Exception {
+    final Regexr[] regexrs = {Regexr.removeCtrls, Regexr.removeEmpties, Regexr.normalizeSpaces, Regexr.trim, new Regexr.Origin("(ｱ)(ｲ)?", "$2$1") {}};
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        final Random random = new Random(thread);
+        futures.add(executor.submit(() -> IntStream.range(0, 5_000).mapToObj((i) -> SweeprTest.randomText(random, 12)).forEach((text) -> {
+          for (Regexr regexr : regexrs) {
+            assertEquals(regexr.getPattern().matcher(text).find(), regexr.matches(text), text);
+            assertEquals(regexr.getPattern().matcher(text).replaceAll(regexr.getReplacement()), regexr.replaceAll(text), text);
+            assertEquals(regexr.getPattern().matcher(text).results().map((r) -> r.group()).collect(Collectors.toList()), regexr.find(text), text);
+          }
+        })));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void allocation() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).isThreadAllocatedMemorySupported());
+    final String text = "the text which contains no control characters .";
+    try {
+      final long reuse = CommonizrTest.allocatedBytes(() -> Regexr.removeCtrls.matches(text));
+      Regexr.setMatcherReuse(false);
+      final long perCall = CommonizrTest.allocatedBytes(() -> Regexr.removeCtrls.matches(text));
+      assertTrue(reuse < perCall, String.format("reuse: %d bytes / call, per call: %d bytes / call .", reuse, perCall));
+    } finally {
+      Regexr.setMatcherReuse(true);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+public class PrefilterTest {
+
+  @Test
+  void testLiteralOf() {/* @formatter:off */
+    Map.ofEntries(
+      Map.entry("abc", "abc")
+    , Map.entry("^abc", "abc")
+    , Map.entry("abc$", "abc")
+    , Map.entry("abc.*", "abc")
+    , Map.entry("abc+", "abc")
+    , Map.entry("abc?", "ab")
+    , Map.entry("abc*", "ab")
+    , Map.entry("abc{2}", "ab")
+    , Map.entry("ab(c|d)", "ab")
+    , Map.entry("ab[cd]", "ab")
+    , Map.entry("a\\.b\\$", "a.b$")
+    , Map.entry("\\t\\n\\x41\\x{1F600}\\u3042", "\t\nA😀あ")
+    , Map.entry("😀+", "😀")
+    , Map.entry("色不異空", "色不異空")
+    , Map.entry("a\\db", "a")
+    , Map.entry("[|]abc", "")
+    ).forEach((regex, expect) -> assertEquals(expect.isEmpty() ? null : expect, Prefilter.literalOf(regex), regex));
+    Arrays.asList(
+      null, "", ".abc", "[abc]", "(abc)", "(?i)abc", "abc|def", "a(b)|c", "\\Qabc\\E", "\\d", "a?", "\\", "\\x{ZZ}"
+    ).forEach((regex) -> assertNull(Prefilter.literalOf(regex), regex));
+  /* @formatter:on */}
+
+  @Test
+  void testLiteralOfRegexr() {
+    assertEquals("abc", Prefilter.literalOf(new Regexr.Origin("abc", null) {}));
+    assertNull(Prefilter.literalOf((Regexr) null));
+    assertNull(Prefilter.literalOf(new Regexr.Origin("abc", null) {
+      @Override
+      public Pattern getPattern() {
+        return Pattern.compile("abc", Pattern.CASE_INSENSITIVE);
+      }
+    }));
+    assertNull(Prefilter.literalOf(new Regexr.Origin("abc", null) {
+      @Override
+      public boolean matches(String text) {
+        return true;
+      }
+    }));
+  }
+
+  @Test
+  void testCandidates() {
+    final Prefilter prefilter = new Prefilter(Arrays.asList(/* @formatter:off */
+      new Regexr.Origin("he", null) {}
+    , new Regexr.Origin("she", null) {}
+    , new Regexr.Origin("his", null) {}
+    , new Regexr.Origin("hers", null) {}
+    , new Regexr.Origin("[xyz]", null) {}
+    /* @formatter:on */));
+    assertArrayEquals(new boolean[] {false, false, false, false, true}, prefilter.candidates(""));
+    assertArrayEquals(new boolean[] {true, true, false, true, true}, prefilter.candidates("ushers"));
+    assertArrayEquals(new boolean[] {false, false, true, false, true}, prefilter.candidates("this"));
+    assertArrayEquals(new boolean[] {true, true, true, true, true}, prefilter.candidates("she his hers"));
+    assertArrayEquals(new boolean[] {}, new Prefilter(Arrays.asList()).candidates("abc"));
+  }
+}
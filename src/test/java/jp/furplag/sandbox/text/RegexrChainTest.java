@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class RegexrChainTest {
+
+  private static final Regexr[] optimizeRules = {Regexr.trim, Regexr.lineFeedsSinglize, Regexr.spacesSinglize, Regexr.normalizeSpaces, Regexr.removeEmpties, Regexr.removeCtrls};
+
+  @Test
+  void test() {
+    final RegexrChain chain = RegexrChain.of(optimizeRules);
+    assertEquals(Arrays.asList(Regexr.removeCtrls, Regexr.removeEmpties, Regexr.normalizeSpaces, Regexr.spacesSinglize, Regexr.lineFeedsSinglize, Regexr.trim), chain.getRegexrs());
+    assertEquals(5, chain.passes());
+    assertEquals(Collections.emptyList(), RegexrChain.of().getRegexrs());
+    assertEquals(Collections.emptyList(), RegexrChain.of((Regexr[]) null).getRegexrs());
+    assertEquals(Arrays.asList(Regexr.trim), RegexrChain.of(null, Regexr.trim, null).getRegexrs());
+    assertNull(chain.replaceAll(null));
+    assertEquals("", RegexrChain.of().replaceAll(""));
+    assertEquals("a b\nc", chain.replaceAll("\u0000  a​ 　b \r\n\n c  "));
+  }
+
+  @Test
+  void testIsSingleCodePoint() {/* @formatter:off */
+    Arrays.asList(
+      "a", "\\x{30F7}", "\\x{1F600}", "\\x0A", "\\u3000", "[a]", "[^a]", "[a-z&&[^b]]", "[\\]\\[]", "[\\p{Cc}&&[^\\s\\x{001C}-\\x{001F}]]"
+    ).forEach((regex) -> assertTrue(RegexrChain.isSingleCodePoint(regex), regex));
+    Arrays.asList(
+      null, "", ".", "ab", "a+", "[a]+", "[a][b]", "[a]|b", "(a)", "\\Qa\\E", "\\s", "[]a]", "[^]a]", "[a", "^a", "\\x{30F7}\\x{30F8}"
+    ).forEach((regex) -> assertFalse(RegexrChain.isSingleCodePoint(regex), regex));
+  /* @formatter:on */}
+
+  @Test
+  void testIsFusible() {
+    assertTrue(RegexrChain.isFusible(Regexr.removeCtrls));
+    assertTrue(RegexrChain.isFusible(Regexr.removeEmpties));
+    assertFalse(RegexrChain.isFusible(null));
+    assertFalse(RegexrChain.isFusible(Regexr.normalizeSpaces));
+    assertFalse(RegexrChain.isFusible(Regexr.spacesSinglize));
+    assertFalse(RegexrChain.isFusible(Regexr.normalizeCjk));
+    assertFalse(RegexrChain.isFusible(new Regexr.Origin("a", "$0$0") {}));
+    assertFalse(RegexrChain.isFusible(new Regexr.Origin("a", "\\\\") {}));
+    assertFalse(RegexrChain.isFusible(new Regexr.Origin("a", "b") {
+      @Override
+      public String replaceAll(String text) {
+        return text;
+      }
+    }));
+  }
+
+  @Test
+  void testFused() {
+    final RegexrChain chain = RegexrChain.of(/* @formatter:off */
+      new Regexr.Origin("a", "b") {}
+    , new Regexr.Origin("b", "c") {}
+    , new Regexr.Origin("[x-z]", "") {}
+    , new Regexr.Origin("\\x{1F600}", "_") {}
+    /* @formatter:on */);
+    assertEquals(2, chain.passes());
+    assertEquals("cc_", chain.replaceAll("abxyz😀"));
+    assertEquals(Regexr.replaceAll("abxyz😀", chain.getRegexrs().toArray(new Regexr[] {})), chain.replaceAll("abxyz😀"));
+
+    final RegexrChain fused = RegexrChain.of(new Regexr.Origin("[ab]", "x") {}, new Regexr.Origin("[bc]", "y") {});
+    assertEquals(1, fused.passes());
+    assertEquals("xxy", fused.replaceAll("abc"));
+    assertEquals(2, RegexrChain.of(new Regexr.Origin("[ab]", "c") {}, new Regexr.Origin("[bc]", "d") {}).passes());
+    assertEquals(Regexr.replaceAll("abc", fused.getRegexrs().toArray(new Regexr[] {})), fused.replaceAll("abc"));
+  }
+
+  @Test
+  void testAnyMatch() {
+    final RegexrChain chain = RegexrChain.of(optimizeRules);
+    assertFalse(chain.anyMatch(null));
+    assertFalse(chain.anyMatch(""));
+    assertFalse(chain.anyMatch("a b"));
+    assertTrue(chain.anyMatch("a  b"));
+    assertTrue(chain.anyMatch("a​b"));
+    assertEquals(Regexr.anyMatch("a​b", optimizeRules), chain.anyMatch("a​b"));
+  }
+
+  @Test
+  void testFirstMatch() {
+    final RegexrChain chain = RegexrChain.of(/* @formatter:off */
+      new Regexr.Origin("[0-9]{3}", null, 3) {}
+    , new Regexr.Origin("needle", null, 1) {}
+    , new Regexr.Origin("hay(stack)?", null, 2) {}
+    , new Regexr.Origin("x|needle", null, 0) {}
+    /* @formatter:on */);
+    assertEquals(Optional.empty(), chain.firstMatch(null));
+    assertEquals(Optional.empty(), chain.firstMatch("nothing here"));
+    assertEquals(Optional.of(chain.getRegexrs().get(0)), chain.firstMatch("a needle"));
+    assertEquals(Optional.of(chain.getRegexrs().get(2)), chain.firstMatch("a haystack"));
+    assertEquals(Optional.of(chain.getRegexrs().get(3)), chain.firstMatch("123"));
+
+    final Random random = new Random(20181010);
+    final String alphabet = "abcde.*+?|()[]^$\\";
+    final Regexr[] regexrs = IntStream.range(0, 300).mapToObj((i) -> {
+      String regex;
+      do {
+        regex = IntStream.range(0, 1 + random.nextInt(5)).mapToObj((j) -> String.valueOf(alphabet.charAt(random.nextInt(alphabet.length())))).collect(Collectors.joining());
+      } while (!isValid(regex));
+
+      return new Regexr.Origin(regex, null, random.nextInt(10)) {};
+    }).toArray(Regexr[]::new);
+    final RegexrChain random300 = RegexrChain.of(regexrs);
+    IntStream.range(0, 2_000).mapToObj((i) -> IntStream.range(0, random.nextInt(12)).mapToObj((j) -> String.valueOf("abcdef".charAt(random.nextInt(6)))).collect(Collectors.joining())).forEach((text) -> {
+      assertEquals(Regexr.anyMatch(text, regexrs), random300.anyMatch(text), text);
+      assertEquals(random300.getRegexrs().stream().filter((regexr) -> regexr.matches(text)).findFirst(), random300.firstMatch(text), text);
+    });
+  }
+
+  /**
+   * returns {@code true} if the regular expression is valid .
+   *
+   * @param regex the regular expression
+   * @return {@code true} if the regular expression is valid
+   */
+  private static boolean isValid(final String regex) {
+    try {
+      Pattern.compile(regex);
+
+      return true;
+    } catch (PatternSyntaxException e) {
+      return false;
+    }
+  }
+
+  @Test
+  void testFindAny() {
+    final RegexrChain chain = RegexrChain.of(optimizeRules);
+    assertEquals(Collections.emptyList(), chain.findAny(null));
+    assertEquals(Collections.emptyList(), chain.findAny("a b"));
+    assertEquals(Regexr.findAny(" a​  b\u0000", optimizeRules), chain.findAny(" a​  b\u0000"));
+  }
+
+  @Test
+  void differentialTest() {
+    final RegexrChain chain = RegexrChain.of(optimizeRules);
+    final Random random = new Random(20181010);
+    IntStream.range(0, 10_000).mapToObj((i) -> SweeprTest.randomText(random, 16)).forEach((text) -> assertEquals(Regexr.replaceAll(text, optimizeRules), chain.replaceAll(text), text));
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class RegexrDiagnosticsTest {
+
+  @Test
+  void testCharsChanged() {
+    assertEquals(0, RegexrDiagnostics.charsChanged(null, null));
+    assertEquals(0, RegexrDiagnostics.charsChanged("abc", "abc"));
+    assertEquals(3, RegexrDiagnostics.charsChanged(null, "abc"));
+    assertEquals(3, RegexrDiagnostics.charsChanged("abc", ""));
+    assertEquals(1, RegexrDiagnostics.charsChanged("a\u0001bc", "abc"));
+    assertEquals(3, RegexrDiagnostics.charsChanged("a　　b", "a b"));
+    assertEquals(1, RegexrDiagnostics.charsChanged("aaa", "aa"));
+    assertEquals(2, RegexrDiagnostics.charsChanged("abc", "adc"));
+  }
+
+  @Test
+  void testDisabled() {
+    assertFalse(RegexrDiagnostics.isEnabled());
+    RegexrDiagnostics.reset();
+    Commonizr.optimize("　a\u0001b​  　c　");
+    Regexr.replaceAll("a\u0001b", Regexr.removeCtrls);
+    assertTrue(RegexrDiagnostics.snapshot().isEmpty());
+  }
+
+  @Test
+  void test() {
+    RegexrDiagnostics.reset();
+    RegexrDiagnostics.setEnabled(true);
+    RegexrDiagnostics.setAttribution(true);
+    try {
+      assertTrue(RegexrDiagnostics.isEnabled());
+      assertTrue(RegexrDiagnostics.isAttribution());
+      assertEquals("ab c", Commonizr.optimize("　a\u0001b​  　c　"));
+      assertEquals("abc", Commonizr.optimize("abc"));
+      assertNull(Commonizr.trim(null));
+      final Map<String, RegexrDiagnostics.Stats> snapshot = RegexrDiagnostics.snapshot();
+
+      final RegexrDiagnostics.Stats optimize = snapshot.get("Commonizr.optimize");
+      assertEquals(2, optimize.getInvocations());
+      assertEquals(1, optimize.getHits());
+      assertEquals(RegexrDiagnostics.charsChanged("　a\u0001b​  　c　", "ab c"), optimize.getCharsChanged());
+      assertTrue(optimize.getNanos() > 0);
+      assertEquals(1, snapshot.get("Commonizr.trim").getInvocations());
+      assertEquals(0, snapshot.get("Commonizr.trim").getHits());
+
+      assertEquals(3, snapshot.get("removeCtrls").getInvocations());
+      assertEquals(1, snapshot.get("removeCtrls").getHits());
+      assertEquals(1, snapshot.get("removeCtrls").getCharsChanged());
+      assertEquals(1, snapshot.get("removeEmpties").getHits());
+      assertEquals(1, snapshot.get("removeEmpties").getCharsChanged());
+      assertEquals(1, snapshot.get("trim").getHits());
+      assertEquals(2, snapshot.get("spacesSinglize").getPasses());
+      assertEquals(0, snapshot.get("lineFeedsSinglize").getHits());
+
+      assertThrows(UnsupportedOperationException.class, () -> snapshot.put("", null));
+      Regexr.replaceAll("a\u0001b", Regexr.removeCtrls);
+      assertEquals(3, snapshot.get("removeCtrls").getInvocations());
+      assertEquals(4, RegexrDiagnostics.snapshot().get("removeCtrls").getInvocations());
+
+      final Regexr recursive = new Regexr.Recursive("aa", "a", 0) {};
+      assertEquals("a", Regexr.replaceAll("aaaaaaaa", recursive));
+      assertEquals(3, RegexrDiagnostics.snapshot().get("aa -> \"a\"").getPasses());
+      assertEquals(7, RegexrDiagnostics.snapshot().get("aa -> \"a\"").getCharsChanged());
+
+      RegexrDiagnostics.reset();
+      assertTrue(RegexrDiagnostics.snapshot().isEmpty());
+    } finally {
+      RegexrDiagnostics.setEnabled(false);
+      RegexrDiagnostics.setAttribution(false);
+      RegexrDiagnostics.reset();
+    }
+  }
+
+  @Test
+  void testAttribution() {
+    RegexrDiagnostics.reset();
+    RegexrDiagnostics.setEnabled(true);
+    RegexrDiagnostics.setAttribution(true);
+    try {
+      assertEquals("ab c\nd", Commonizr.optimize("a\u0001b \t  c\n\n d "));
+      final Map<String, RegexrDiagnostics.Stats> snapshot = RegexrDiagnostics.snapshot();
+      assertEquals(1, snapshot.get("Commonizr.optimize").getHits());
+      assertEquals(1, snapshot.get("removeCtrls").getHits());
+      assertEquals(0, snapshot.get("removeEmpties").getHits());
+      assertEquals(1, snapshot.get("normalizeSpaces").getHits());
+      assertEquals(1, snapshot.get("spacesSinglize").getHits());
+      assertEquals(1, snapshot.get("lineFeedsSinglize").getHits());
+      assertEquals(1, snapshot.get("trim").getHits());
+
+      RegexrDiagnostics.reset();
+      assertEquals("abc", Commonizr.optimize("abc"));
+      assertEquals(1, RegexrDiagnostics.snapshot().get("removeCtrls").getInvocations());
+      assertEquals(0, RegexrDiagnostics.snapshot().get("removeCtrls").getHits());
+
+      RegexrDiagnostics.reset();
+      assertEquals("a b", Commonizr.normalizeCjk(" a\u0001 b "));
+      assertEquals(1, RegexrDiagnostics.snapshot().get("normalizeCjk").getInvocations());
+      assertEquals(1, RegexrDiagnostics.snapshot().get("removeCtrls").getHits());
+
+      RegexrDiagnostics.reset();
+      assertEquals("a\nb", Commonizr.trimMultiline(" a \n\n b "));
+      assertEquals(1, RegexrDiagnostics.snapshot().get("lineFeedsSinglize").getHits());
+      assertEquals(2, RegexrDiagnostics.snapshot().get("trim").getInvocations());
+    } finally {
+      RegexrDiagnostics.setEnabled(false);
+      RegexrDiagnostics.setAttribution(false);
+      RegexrDiagnostics.reset();
+    }
+  }
+
+  @Test
+  void testProduction() {
+    RegexrDiagnostics.reset();
+    RegexrDiagnostics.setEnabled(true);
+    try {
+      assertFalse(RegexrDiagnostics.isAttribution());
+      assertEquals("ab c\nd", Commonizr.optimize("a\u0001b \t  c\n\n d "));
+      Map<String, RegexrDiagnostics.Stats> snapshot = RegexrDiagnostics.snapshot();
+      assertEquals(1, snapshot.get("Commonizr.optimize").getHits());
+      assertEquals(1, snapshot.get("Commonizr.optimize[latin1]").getHits());
+      assertNull(snapshot.get("removeCtrls"));
+      assertEquals(1, snapshot.get("Sweepr.drop").getCharsChanged());
+      assertEquals(3, snapshot.get("Sweepr.space").getCharsChanged());
+      assertEquals(2, snapshot.get("Sweepr.lineFeed").getCharsChanged());
+      assertEquals(1, snapshot.get("Sweepr.trim").getCharsChanged());
+
+      RegexrDiagnostics.reset();
+      assertEquals("あいう", Commonizr.optimize("あいう"));
+      assertEquals("ab c", Commonizr.optimize("　a\u0001b​  　c　"));
+      snapshot = RegexrDiagnostics.snapshot();
+      assertEquals(1, snapshot.get("Commonizr.optimize[clean]").getInvocations());
+      assertEquals(0, snapshot.get("Commonizr.optimize[clean]").getHits());
+      assertEquals(1, snapshot.get("Commonizr.optimize[rules]").getHits());
+      assertEquals(1, snapshot.get("removeCtrls+removeEmpties").getInvocations());
+      assertEquals(1, snapshot.get("removeCtrls+removeEmpties").getHits());
+      assertNull(snapshot.get("removeCtrls"));
+
+      RegexrDiagnostics.reset();
+      assertEquals("アイ - ガ b", Commonizr.normalizeCjk(" ｱｲ\u0001 ‐ ｶﾞ　ｂ "));
+      assertEquals("アイ", Commonizr.normalizeCjk("アイ"));
+      snapshot = RegexrDiagnostics.snapshot();
+      assertEquals(1, snapshot.get("Commonizr.normalizeCjk[sweepr]").getHits());
+      assertEquals(1, snapshot.get("Commonizr.normalizeCjk[clean]").getInvocations());
+      assertNull(snapshot.get("normalizeCjk"));
+      assertEquals(1, snapshot.get("Sweepr.drop").getCharsChanged());
+      assertEquals(1, snapshot.get("Sweepr.hyphen").getCharsChanged());
+      assertEquals(1, snapshot.get("Sweepr.mark").getHits());
+      assertEquals(0, snapshot.get("Sweepr.cjkComplex").getHits());
+      assertTrue(snapshot.get("Sweepr.cjk").getCharsChanged() >= 4);
+      assertTrue(snapshot.get("Sweepr.trim").getHits() > 0);
+
+      RegexrDiagnostics.reset();
+      assertEquals("a\nb", Commonizr.trimMultiline(" a \n\n b "));
+      snapshot = RegexrDiagnostics.snapshot();
+      assertEquals(1, snapshot.get("Commonizr.trimMultiline[liner]").getHits());
+      assertEquals(2, snapshot.get("Liner.trim").getCharsChanged());
+      assertEquals(3, snapshot.get("Liner.lineFeed").getCharsChanged());
+      assertNull(snapshot.get("lineFeedsSinglize"));
+    } finally {
+      RegexrDiagnostics.setEnabled(false);
+      RegexrDiagnostics.reset();
+    }
+  }
+
+  @Test
+  void testParity() {
+    final Random random = new Random(20181017L);
+    final String[] texts = IntStream.range(0, 3_000).mapToObj((i) -> SweeprTest.randomText(random, random.nextInt(64))).toArray(String[]::new);
+    final UnaryOperator<String> all = (text) -> String.join("\u0000", Commonizr.optimize(text), Commonizr.trim(text), Commonizr.trimMultiline(text), Commonizr.normalizeCjk(text), Commonizr.denormalizeCjk(text), Commonizr.hiraganize(text), Commonizr.katakanize(text));
+    final String[] expected = IntStream.range(0, texts.length).mapToObj((i) -> all.apply(texts[i])).toArray(String[]::new);
+    RegexrDiagnostics.setEnabled(true);
+    try {
+      IntStream.range(0, texts.length).forEach((i) -> assertEquals(expected[i], all.apply(texts[i])));
+      assertEquals(texts.length, RegexrDiagnostics.snapshot().get("Commonizr.katakanize").getInvocations());
+      RegexrDiagnostics.setAttribution(true);
+      IntStream.range(0, texts.length).forEach((i) -> assertEquals(expected[i], all.apply(texts[i])));
+    } finally {
+      RegexrDiagnostics.setEnabled(false);
+      RegexrDiagnostics.setAttribution(false);
+      RegexrDiagnostics.reset();
+    }
+  }
+}
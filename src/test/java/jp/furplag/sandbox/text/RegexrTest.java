@@ -20,6 +20,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -30,11 +32,14 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
 import java.util.Set;
 import java.util.function.IntPredicate;
+import java.util.regex.MatchResult;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import jp.furplag.sandbox.reflect.SavageReflection;
 import org.junit.jupiter.api.Test;
 
@@ -157,6 +162,26 @@ public class RegexrTest {
     assertEquals(Collections.EMPTY_LIST, Regexr.findAny("色不異空", new Regexr.Origin("[諸行無常]", Regexr.newString(128591)) {}, new Regexr.Recursive("[一切苦厄]", Regexr.newString(128591)) {}));
   }
 
+  @Test
+  void testFindResults() {
+    assertEquals(0, new Regexr.Origin("色", null) {}.findResults(null).count());
+    assertEquals(Arrays.asList("0-1:色", "4-5:色"), new Regexr.Origin("色", null) {}.findResults("色不異空色").map((r) -> r.start() + "-" + r.end() + ":" + r.group()).collect(Collectors.toList()));
+    assertEquals(Regexr.findAny("色不異空", Regexr.normalizeCjk, new Regexr.Origin("[空不異色]", null) {}), Regexr.findAnyResults("色不異空", Regexr.normalizeCjk, new Regexr.Origin("[空不異色]", null) {}).map(MatchResult::group).collect(Collectors.toList()));
+
+    final Regexr never = new Regexr.Origin("色", null, 1) {
+      @Override
+      public Stream<MatchResult> findResults(String text) {
+        throw new IllegalStateException("must not search .");
+      }
+    };
+    assertEquals(2, Regexr.findAnyResults("色不異空", never, new Regexr.Origin("異", null, 0) {}).findFirst().orElseThrow().start());
+    assertEquals(1, RegexrChain.of(never, new Regexr.Origin("不", null, 0) {}).findAnyResults("色不異空").findFirst().orElseThrow().start());
+
+    final String text = "a".repeat(1 << 20);
+    assertEquals(0, new Regexr.Origin("a", null) {}.findResults(text).findFirst().orElseThrow().start());
+    assertEquals(3, new Regexr.Origin("a", null) {}.findResults(text).skip(3).findFirst().orElseThrow().start());
+  }
+
   @Test
   void testNewString() {
     assertEquals("", Regexr.newString(-1));
@@ -222,6 +247,8 @@ public class RegexrTest {
     assertEquals("あ゜い゜う゜え゜お゜な゛に゛ぬ゛ね゛の゛", Regexr.normalizeCjk.replaceAll("あ゜い゜う゜え゜お゜な゛に゛ぬ゛ね゛の゛"));
     assertEquals("あ゜い゜う゜え゜お゜な゛に゛ぬ゛ね゛の゛", Regexr.normalizeCjk.replaceAll("あ゚い゚う゚え゚お゚な゙に゙ぬ゙ね゙の゙"));
     assertEquals("パ～やん", Regexr.normalizeCjk.replaceAll("パ～やん"));
+    assertEquals("ア アイ", Regexr.normalizeCjk.replaceAll("ｱ ｱｲ"));
+    assertEquals("カ ガ", Regexr.normalizeCjk.replaceAll("ｶ ｶﾞ"));
   }
 
   @Test
@@ -307,6 +334,34 @@ public class RegexrTest {
 
     String spaces = IntStream.rangeClosed(Character.MIN_CODE_POINT, Character.MAX_CODE_POINT).filter(Character::isWhitespace).mapToObj(Regexr::newString).collect(Collectors.joining("\u0020"));
     assertEquals(" ", new Regexr.Recursive("[\\p{javaWhitespace}]{2,}", "\u0020") {}.replaceAll(spaces));
+
+    assertEquals("a", new Regexr.Recursive("a", "a") {}.replaceAll("a"));
+    assertEquals("aaa", new Regexr.Recursive("a", "$") {}.replaceAll("aaa"));
+    assertThrows(IllegalStateException.class, () -> new Regexr.Recursive("x", "xy") {}.replaceAll("xx"));
+    assertThrows(IllegalStateException.class, () -> new Regexr.Recursive("^(a)(b)$|^(b)(a)$", "$2$1$4$3") {}.replaceAll("ab"));
+    assertEquals("b", new Regexr.Recursive("ab", "b", 0) {}.replaceAll("a".repeat(2_000) + "b"));
+  }
+
+  @Test
+  void testCollapse() {
+    final Regexr[] references = {new Regexr.Recursive(Regexr.spacesSinglize.getRegex(), Regexr.spacesSinglize.getReplacement()) {}, new Regexr.Recursive(Regexr.lineFeedsSinglize.getRegex(), Regexr.lineFeedsSinglize.getReplacement()) {}};
+    final Regexr[] collapses = {Regexr.spacesSinglize, Regexr.lineFeedsSinglize};
+    final String text = "a b";
+    for (Regexr regexr : collapses) {
+      assertNull(regexr.replaceAll(null));
+      assertEquals("", regexr.replaceAll(""));
+      assertSame(text, regexr.replaceAll(text));
+    }
+    assertEquals("a b\n c", Regexr.spacesSinglize.replaceAll("a \t b\n \u3000c"));
+    assertEquals("a\nb\tc\nd", Regexr.lineFeedsSinglize.replaceAll("a \n\r\n\tb\tc\n\n\nd"));
+
+    final int[] alphabet = {' ', ' ', '\t', '\n', '\n', '\r', 0x000B, 0x000C, 0x001C, 0x0085, 0x00A0, 0x2028, 0x3000, 'a'};
+    final Random random = new Random(20181010);
+    IntStream.range(0, 10_000).mapToObj((i) -> Regexr.newString(IntStream.range(0, random.nextInt(24)).map((j) -> alphabet[random.nextInt(alphabet.length)]).toArray())).forEach((t) -> {
+      for (int i = 0; i < collapses.length; i++) {
+        assertEquals(references[i].replaceAll(t), collapses[i].replaceAll(t), t);
+      }
+    });
   }
 
   @Test
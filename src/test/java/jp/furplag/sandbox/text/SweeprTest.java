@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2018+ furplag (https://github.com/furplag)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.furplag.sandbox.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class SweeprTest {
+
+  /** the characters which each rules of {@link Commonizr#normalizeCjk(String)} concerned . */
+  static final int[] alphabet = IntStream.concat(IntStream.concat(IntStream.rangeClosed(0x3000, 0x30FF), IntStream.rangeClosed(0xFF00, 0xFFEF)), IntStream.of(/* @formatter:off */
+    ' ', ' ', ' ', ' ', '\n', '\n', '\t', '\r', 0x000B, 0x000C, 0x001C, 0x001F, 0x0085, 0x0000, 0x0007, 0x007F, 0x00A0, 0x1680
+  , 0x2000, 0x200B, 0x2028, 0x2029, 0x202F, 0x205F, 0x2060, 0x3000, 0x2010, 0x2011, 0x2012
+  , 0x3099, 0x309A, 0x309B, 0x309C, 0xFF9E, 0xFF9F, 0xFF9E, 0xFF9F, 'a', 'A', '-', '~'
+  , 0x1100, 0x1161, 0x11A8, 0x3131, 0x314F, 0x0301, 0x0304, 0x1F600, 0xD800, 0xDC00, 0xFEFF, 0xFFE3, 0x302A, 0x302E
+  , 0x304B, 0x30AB, 0x30C8, 0x30FF, 0x309F
+  /* @formatter:on */)).toArray();
+
+  /**
+   * {@link Commonizr#normalizeCjk(String)} using {@link Regexr Regexr(s)} .
+   *
+   * @param text the string, maybe null
+   * @return normalized text
+   */
+  static String normalizeCjk(final String text) {
+    return optimize(Regexr.normalizeCjk.replaceAll(optimize(text)));
+  }
+
+  /**
+   * {@link Commonizr#optimize(String)} using {@link Regexr Regexr(s)} .
+   *
+   * @param text the string, maybe null
+   * @return optimized text
+   */
+  static String optimize(final String text) {
+    return Regexr.replaceAll(text, Regexr.removeCtrls, Regexr.removeEmpties, Regexr.normalizeSpaces, Regexr.spacesSinglize, Regexr.lineFeedsSinglize, Regexr.trim);
+  }
+
+  /**
+   * returns randomly generated text using {@link #alphabet} .
+   *
+   * @param random {@link Random}
+   * @param maxLength the max length of code points
+   * @return randomly generated text
+   */
+  static String randomText(final Random random, final int maxLength) {
+    return Regexr.newString(IntStream.range(0, random.nextInt(maxLength + 1)).map((i) -> alphabet[random.nextInt(alphabet.length)]).toArray());
+  }
+
+  @Test
+  void testNormalizeCjk() {
+    assertNull(Sweepr.normalizeCjk(null));
+    assertEquals("", Sweepr.normalizeCjk(""));
+    assertEquals("", Sweepr.normalizeCjk("   \r\n   \r\n   \r\n"));
+    assertEquals("ア アイ", Sweepr.normalizeCjk("ｱ ｱｲ"));
+    assertEquals("カ カ゛", Sweepr.normalizeCjk("ｶ ｶ ﾞ"));
+    assertEquals("カ ガ", Sweepr.normalizeCjk("ｶ ｶ ゛"));
+    assertEquals("コド", Sweepr.normalizeCjk("ヿﾞ"));
+    assertEquals("a \u0304", Sweepr.normalizeCjk("a \uFFE3"));
+  }
+
+  @Test
+  void testIndexOfDrop() {
+    assertEquals(-1, Sweepr.indexOfDrop("", 0, 0));
+    assertEquals(-1, Sweepr.indexOfDrop("the String.\n\t　", 0, 14));
+    assertEquals(16, Sweepr.indexOfDrop("the String. the \u200Bstring.", 0, 24));
+    assertEquals(-1, Sweepr.indexOfDrop("the String. the \u200Bstring.", 0, 16));
+    assertEquals(-1, Sweepr.indexOfDrop("the String. the \u200Bstring.", 17, 24));
+    final Random random = new Random(20181010);
+    IntStream.range(0, 10_000).mapToObj((i) -> randomText(random, 40)).forEach((text) -> {
+      final int start = random.nextInt(text.length() + 1);
+      final int expect = IntStream.range(start, text.length()).filter((i) -> Regexr.removeCtrls.matches(text.substring(i, i + 1)) || Regexr.removeEmpties.matches(text.substring(i, i + 1))).findFirst().orElse(-1);
+      assertEquals(expect, Sweepr.indexOfDrop(text, start, text.length()), text);
+    });
+  }
+
+  @Test
+  void differentialTest() {
+    final Random random = new Random(20181010);
+    IntStream.range(0, 30_000).mapToObj((i) -> randomText(random, 16)).forEach((text) -> assertEquals(normalizeCjk(text), Sweepr.normalizeCjk(text), text));
+    IntStream.range(0, 100).mapToObj((i) -> randomText(random, 2_000)).forEach((text) -> assertEquals(normalizeCjk(text), Sweepr.normalizeCjk(text), text));
+  }
+
+  @Test
+  void differentialTestOfPairs() {
+    for (int i : alphabet) {
+      for (int j : alphabet) {
+        final String text = Regexr.newString(i, j);
+        assertEquals(normalizeCjk(text), Sweepr.normalizeCjk(text), text);
+      }
+    }
+  }
+
+  @Test
+  void differentialTestOfLongRun() {
+    final String syllables = "ﾡￂ".repeat(Sweepr.runThreshold / 2) + "ﾣ";
+    assertEquals(normalizeCjk(syllables), Sweepr.normalizeCjk(syllables));
+    assertEquals(Sweepr.runThreshold / 2, Sweepr.normalizeCjk(syllables).length());
+    assertEquals(normalizeCjk(syllables), Commonizr.normalizeCjk(syllables));
+    final int marks = Sweepr.runThreshold * 3 / 4;
+    for (String text : new String[] { "〪〬".repeat(marks), "〪〬".repeat(marks * 2), "x" + "〪〬".repeat(marks * 2) + "y", "〬" + "〪".repeat(marks * 2) + "〭", "ｱ" + "〪".repeat(marks * 2) + "ﾞ〬ｶﾞ", "ｶ".repeat(Sweepr.runThreshold) + "〪ﾞ〭〬ﾟ" }) {
+      assertEquals(normalizeCjk(text), Sweepr.normalizeCjk(text), text);
+      assertEquals(normalizeCjk(text), Commonizr.normalizeCjk(text), text);
+    }
+    final Random random = new Random(20181010);
+    IntStream.range(0, 3).mapToObj((i) -> IntStream.range(0, Sweepr.runThreshold * 3).mapToObj((j) -> Character.toString(0xFFA0 + random.nextInt(0x3D))).reduce("", String::concat)).forEach((text) -> assertEquals(normalizeCjk(text), Sweepr.normalizeCjk(text)));
+    final int[] complexes = IntStream.concat(IntStream.rangeClosed(0x302A, 0x302F), IntStream.of(0x3099, 0x309A, 0xFF9E, 0xFF9F, 0xFF76, 0xFFA1, 0xFFC2, 0xFFA3, 0x3131)).toArray();
+    IntStream.range(0, 3).mapToObj((i) -> IntStream.range(0, Sweepr.runThreshold * 3).mapToObj((j) -> Character.toString(complexes[random.nextInt(complexes.length)])).collect(Collectors.joining())).forEach((text) -> assertEquals(normalizeCjk(text), Sweepr.normalizeCjk(text)));
+  }
+}